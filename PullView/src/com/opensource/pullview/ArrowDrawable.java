@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Usage The arrow drawable of pull views, draws a down arrow with canvas.<br>
+ * <p>The arrow is a path in a unit square, it is built once and shared by all arrows
+ * with the same color through {@link ConstantState}, and scaled to the bounds when drawing.
+ * Alpha and color filter are of every arrow, they never change the shared state.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class ArrowDrawable extends Drawable {
+
+	/** The default color of arrow. */
+	public static final int DEFAULT_COLOR = Color.rgb(80, 80, 80);
+
+	/** The count of shaft blocks, they fade out to the tail. */
+	private static final int SHAFT_BLOCK_COUNT = 4;
+
+	/** The shared state of default color. */
+	private static ArrowState sDefaultState;
+
+	private ArrowState mState;
+
+	private int mAlpha = 255;
+
+	private ColorFilter mColorFilter;
+
+	private boolean mMutated = false;
+
+	/**
+	 * Constructor, the arrow of default color.
+	 */
+	public ArrowDrawable() {
+		if(null == sDefaultState) {
+			sDefaultState = new ArrowState(DEFAULT_COLOR);
+		}
+		mState = sDefaultState;
+	}
+
+	/**
+	 * Constructor
+	 * @param color the color of arrow.
+	 */
+	public ArrowDrawable(int color) {
+		mState = new ArrowState(color);
+	}
+
+	private ArrowDrawable(ArrowState state) {
+		mState = state;
+	}
+
+	@Override
+	public void draw(Canvas canvas) {
+		final Rect bounds = getBounds();
+		final Paint paint = mState.mPaint;
+		int saveCount = canvas.save();
+		canvas.translate(bounds.left, bounds.top);
+		canvas.scale(bounds.width(), bounds.height());
+		paint.setColorFilter(mColorFilter);
+		paint.setAlpha(mAlpha);
+		canvas.drawPath(mState.mHeadPath, paint);
+		for(int i = 0; i < SHAFT_BLOCK_COUNT; i++) {
+			paint.setAlpha(mAlpha * (SHAFT_BLOCK_COUNT - i) / (SHAFT_BLOCK_COUNT + 1));
+			canvas.drawPath(mState.mShaftPaths[i], paint);
+		}
+		canvas.restoreToCount(saveCount);
+	}
+
+	@Override
+	public void setAlpha(int alpha) {
+		mAlpha = alpha;
+		invalidateSelf();
+	}
+
+	@Override
+	public void setColorFilter(ColorFilter cf) {
+		mColorFilter = cf;
+		invalidateSelf();
+	}
+
+	@Override
+	public int getOpacity() {
+		return PixelFormat.TRANSLUCENT;
+	}
+
+	@Override
+	public Drawable mutate() {
+		if(!mMutated && super.mutate() == this) {
+			mState = new ArrowState(mState);
+			mMutated = true;
+		}
+		return this;
+	}
+
+	@Override
+	public ConstantState getConstantState() {
+		return mState;
+	}
+
+	/**
+	 * Usage The shared state of arrows.
+	 *
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	private static class ArrowState extends ConstantState {
+
+		private Paint mPaint;
+
+		/** The head of arrow in unit square. */
+		private Path mHeadPath;
+
+		/** The shaft blocks of arrow in unit square, from head to tail. */
+		private Path [] mShaftPaths = new Path[SHAFT_BLOCK_COUNT];
+
+		private ArrowState(int color) {
+			mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+			mPaint.setStyle(Paint.Style.FILL);
+			mPaint.setColor(color);
+
+			mHeadPath = new Path();
+			mHeadPath.moveTo(0.2f, 0.6f);
+			mHeadPath.lineTo(0.8f, 0.6f);
+			mHeadPath.lineTo(0.5f, 0.95f);
+			mHeadPath.close();
+
+			final float blockHeight = 0.55f / SHAFT_BLOCK_COUNT;
+			for(int i = 0; i < SHAFT_BLOCK_COUNT; i++) {
+				float bottom = 0.6f - i * blockHeight;
+				mShaftPaths[i] = new Path();
+				mShaftPaths[i].addRect(0.4f, bottom - blockHeight * 0.75f, 0.6f, bottom, Path.Direction.CW);
+			}
+		}
+
+		private ArrowState(ArrowState state) {
+			mPaint = new Paint(state.mPaint);
+			mHeadPath = new Path(state.mHeadPath);
+			for(int i = 0; i < SHAFT_BLOCK_COUNT; i++) {
+				mShaftPaths[i] = new Path(state.mShaftPaths[i]);
+			}
+		}
+
+		@Override
+		public Drawable newDrawable() {
+			return new ArrowDrawable(this);
+		}
+
+		@Override
+		public int getChangingConfigurations() {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Usage Runs an {@link OnRefreshInBackgroundListener} for a pull view, and can start it
+ * speculatively before the refresh.<br>
+ * <p>{@link #speculate()} starts loading when the header reaches the release threshold, and
+ * {@link #cancelSpeculation()} cancels it when the header is pulled back. When the refresh starts,
+ * {@link #onRefresh()} takes the speculative loading over, its result is committed at once if
+ * it was loaded already, otherwise when it is loaded. Without a speculation it just starts loading.
+ * While the view is detached, the listener is kept weakly, see {@link #release()}.
+ * Used in main thread only.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+abstract class BackgroundRefresh<T> implements OnRefreshListener {
+	
+	private OnRefreshInBackgroundListener<T> mListener;
+	
+	/** The listener kept weakly while the view is detached. */
+	private WeakReference<OnRefreshInBackgroundListener<T>> mReleasedListener;
+	
+	/** The generation of loading, the result of an older generation is dropped. */
+	private int mGeneration = 0;
+	
+	private Future<Void> mFuture;
+	
+	/** Whether the loading was taken over by a refresh. */
+	private boolean mRefreshing = false;
+	
+	/** The token of the refresh which took the loading over. */
+	private int mToken;
+	
+	private boolean mLoaded = false;
+	
+	private T mResult;
+	
+	private Exception mError;
+	
+	BackgroundRefresh(OnRefreshInBackgroundListener<T> listener) {
+		this.mListener = listener;
+	}
+	
+	/**
+	 * Get the executor to load in.
+	 * @return
+	 */
+	abstract Executor getExecutor();
+	
+	/**
+	 * Get the token of the refresh being started.
+	 * @return
+	 */
+	abstract int getLoadToken();
+	
+	/**
+	 * Whether the refresh of token is still loading, not timed out or replaced.
+	 * @param token
+	 * @return
+	 */
+	abstract boolean isRefreshing(int token);
+	
+	/**
+	 * Complete the refresh of token.
+	 * @param token
+	 */
+	abstract void complete(int token);
+	
+	/**
+	 * Start loading before the refresh, does nothing if it was started.
+	 */
+	void speculate() {
+		if(null == mFuture) {
+			start();
+		}
+	}
+	
+	/**
+	 * Cancel the loading started by {@link #speculate()} if no refresh took it over,
+	 * the loader is interrupted if it is running.
+	 */
+	void cancelSpeculation() {
+		if(null != mFuture && !mRefreshing) {
+			PullLoader.cancel(getExecutor(), mFuture);
+			clear();
+		}
+	}
+	
+	/**
+	 * Cancel any loading, the result of it is dropped.
+	 */
+	void cancel() {
+		if(null != mFuture) {
+			PullLoader.cancel(getExecutor(), mFuture);
+			clear();
+		}
+	}
+	
+	/**
+	 * Keep the listener weakly, the view was detached. Any loading must have been cancelled.
+	 */
+	void release() {
+		if(null != mListener) {
+			mReleasedListener = new WeakReference<OnRefreshInBackgroundListener<T>>(mListener);
+			mListener = null;
+		}
+	}
+	
+	/**
+	 * Keep the listener strongly again, the view was attached.
+	 * @return false if the listener was not referenced by its owner any more.
+	 */
+	boolean retain() {
+		if(null != mReleasedListener) {
+			mListener = mReleasedListener.get();
+			mReleasedListener = null;
+		}
+		return null != mListener;
+	}
+	
+	@Override
+	public void onRefresh() {
+		if(null == mFuture || mRefreshing) {
+			//No speculation, or the loading of an older refresh which was abandoned.
+			start();
+		}
+		mRefreshing = true;
+		mToken = getLoadToken();
+		if(mLoaded) {
+			commit();
+		}
+	}
+	
+	private void start() {
+		clear();
+		final int generation = mGeneration;
+		final OnRefreshInBackgroundListener<T> listener = mListener;
+		final Callable<T> loader = new Callable<T>() {
+			
+			@Override
+			public T call() throws Exception {
+				return listener.onRefreshInBackground();
+			}
+		};
+		mFuture = PullLoader.load(getExecutor(), loader, new PullLoader.Callback<T>() {
+			
+			@Override
+			public void onLoaded(T result, Exception error) {
+				if(generation != mGeneration) {
+					//Cancelled or replaced.
+					return;
+				}
+				mLoaded = true;
+				mResult = result;
+				mError = error;
+				if(mRefreshing) {
+					commit();
+				}
+			}
+		});
+	}
+	
+	private void commit() {
+		final int token = mToken;
+		final T result = mResult;
+		final Exception error = mError;
+		clear();
+		if(!isRefreshing(token)) {
+			//Timed out or replaced, drop the result.
+			return;
+		}
+		if(null == error) {
+			mListener.onRefreshed(result);
+		} else {
+			mListener.onRefreshFailed(error);
+		}
+		complete(token);
+	}
+	
+	private void clear() {
+		mGeneration++;
+		mFuture = null;
+		mRefreshing = false;
+		mLoaded = false;
+		mResult = null;
+		mError = null;
+	}
+}
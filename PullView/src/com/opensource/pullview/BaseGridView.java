@@ -38,6 +38,9 @@ public class BaseGridView extends LinearLayout {
 	
 	/** The footer content layout. */
 	private LinearLayout mFooterLayout = null;
+	
+	/** The counters of work, null if not used. */
+	private PullViewCounters mCounters = null;
     
     /**
      * Instantiates a new ab grid view.
@@ -103,6 +106,42 @@ public class BaseGridView extends LinearLayout {
 		mFooterLayout.addView(v, 0, footerContentLp);
     }
 
+	@Override
+	public void requestLayout() {
+		if(null != mCounters) {
+			mCounters.mRequestLayouts++;
+		}
+		super.requestLayout();
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		if(null != mCounters) {
+			mCounters.mMeasures++;
+		}
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		if(null != mCounters) {
+			mCounters.mLayouts++;
+		}
+		super.onLayout(changed, l, t, r, b);
+	}
+
+	/**
+	 * Get the counters of the work this view does, counting starts after it was got first time.
+	 *
+	 * @return the counters
+	 */
+	public PullViewCounters getCounters() {
+		if(null == mCounters) {
+			mCounters = new PullViewCounters();
+		}
+		return mCounters;
+	}
+
 	/**
 	 * Gets the grid view.
 	 *
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.SystemClock;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Usage A debug overlay draws the {@link PullViewCounters} of a pull view on top of it.<br>
+ * <p>Shows layout, measure and layout request passes per second, header and footer text updates
+ * per second, listener dispatches with their average time, and the current {@link IPullView} state.
+ * If a change makes the pull path lay out on every move, the layouts per second go up with the
+ * finger right away.<br>
+ * 
+ * <p>Enable it with setDebugOverlayEnabled() of {@link PullListView} or {@link PullScrollView},
+ * it is only for debugging. The overlay redraws the view {@link #REFRESH_INTERVAL} milliseconds
+ * after every draw to keep the numbers live, it does not lay out the view.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class DebugOverlay {
+	
+	/** The time between two redraws of overlay, in milliseconds. */
+	public static final long REFRESH_INTERVAL = 250;
+	
+	/** The time of a sample of rates, in milliseconds. */
+	private static final long SAMPLE_TIME = 1000;
+	
+	private static final int TEXT_SIZE_DIP = 11;
+	
+	private static final int PADDING_DIP = 4;
+	
+	private final View mView;
+	
+	private final PullViewCounters mCounters;
+	
+	/** The counters at the start of current sample. */
+	private final PullViewCounters mSampleStart = new PullViewCounters();
+	
+	private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	
+	private final Paint mBackgroundPaint = new Paint();
+	
+	private final StringBuilder mLine = new StringBuilder(64);
+	
+	private final int mPadding;
+	
+	private final float mLineHeight;
+	
+	private final float mWidth;
+	
+	private long mSampleStartTime = -1;
+	
+	private long mLayoutRate = 0;
+	
+	private long mMeasureRate = 0;
+	
+	private long mRequestLayoutRate = 0;
+	
+	private long mTextUpdateRate = 0;
+	
+	/**
+	 * Constructor
+	 * @param view the pull view to draw on.
+	 * @param counters the counters of view.
+	 */
+	DebugOverlay(View view, PullViewCounters counters) {
+		this.mView = view;
+		this.mCounters = counters;
+		final float density = view.getResources().getDisplayMetrics().density;
+		mPadding = (int) (PADDING_DIP * density + 0.5f);
+		mTextPaint.setColor(Color.WHITE);
+		mTextPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_SIZE_DIP,
+				view.getResources().getDisplayMetrics()));
+		mLineHeight = mTextPaint.descent() - mTextPaint.ascent();
+		mWidth = Math.max(mTextPaint.measureText("layouts/s 0000  measures/s 0000"),
+				mTextPaint.measureText("requestLayouts/s 0000  text/s 0000")) + mPadding * 2;
+		mBackgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+	}
+	
+	/**
+	 * Draw the overlay at the top left corner of view, called at the end of dispatchDraw() of view.
+	 * @param canvas
+	 * @param state the current state of view.
+	 */
+	void draw(Canvas canvas, int state) {
+		sample();
+		final int saveCount = canvas.save();
+		canvas.translate(mView.getScrollX(), mView.getScrollY());
+		canvas.drawRect(0, 0, mWidth, mLineHeight * 4 + mPadding * 2, mBackgroundPaint);
+		
+		float y = mPadding - mTextPaint.ascent();
+		mLine.setLength(0);
+		mLine.append("layouts/s ").append(mLayoutRate).append("  measures/s ").append(mMeasureRate);
+		drawLine(canvas, y);
+		
+		y += mLineHeight;
+		mLine.setLength(0);
+		mLine.append("requestLayouts/s ").append(mRequestLayoutRate).append("  text/s ").append(mTextUpdateRate);
+		drawLine(canvas, y);
+		
+		y += mLineHeight;
+		mLine.setLength(0);
+		mLine.append("dispatches ").append(mCounters.mDispatches).append("  avg ");
+		mLine.append(mCounters.mDispatches == 0 ? 0 : mCounters.mDispatchTime / mCounters.mDispatches / 1000).append("us");
+		drawLine(canvas, y);
+		
+		y += mLineHeight;
+		mLine.setLength(0);
+		mLine.append("state ").append(getStateName(state));
+		drawLine(canvas, y);
+		
+		canvas.restoreToCount(saveCount);
+		mView.postInvalidateDelayed(REFRESH_INTERVAL);
+	}
+	
+	private void drawLine(Canvas canvas, float y) {
+		canvas.drawText(mLine, 0, mLine.length(), mPadding, y, mTextPaint);
+	}
+	
+	/**
+	 * Update the rates if the current sample was finished.
+	 */
+	private void sample() {
+		final long now = SystemClock.uptimeMillis();
+		if(mSampleStartTime < 0) {
+			mSampleStartTime = now;
+			mSampleStart.set(mCounters);
+			return;
+		}
+		final long elapsed = now - mSampleStartTime;
+		if(elapsed < SAMPLE_TIME) {
+			return;
+		}
+		mLayoutRate = (mCounters.mLayouts - mSampleStart.mLayouts) * 1000 / elapsed;
+		mMeasureRate = (mCounters.mMeasures - mSampleStart.mMeasures) * 1000 / elapsed;
+		mRequestLayoutRate = (mCounters.mRequestLayouts - mSampleStart.mRequestLayouts) * 1000 / elapsed;
+		mTextUpdateRate = (mCounters.mIndicatorTextUpdates - mSampleStart.mIndicatorTextUpdates) * 1000 / elapsed;
+		mSampleStartTime = now;
+		mSampleStart.set(mCounters);
+	}
+	
+	private static String getStateName(int state) {
+		switch (state) {
+		case IPullView.RELEASE_TO_LOAD:
+			return "RELEASE_TO_LOAD";
+		case IPullView.PULL_TO_LOAD:
+			return "PULL_TO_LOAD";
+		case IPullView.LOADING:
+			return "LOADING";
+		case IPullView.IDEL:
+			return "IDEL";
+		default:
+			return String.valueOf(state);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Usage Keeps the listeners of a detached pull view weakly.<br>
+ * <p>A detached view may never be attached again, so it must not keep what its listeners reference
+ * (usually the activity) alive. When the view is attached again, it takes back the listeners which are
+ * still referenced by their owner. A listener set while the view is detached replaces the kept one.
+ * Used in main thread only.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+final class DetachedListeners {
+	
+	private final WeakReference<?> [] mListeners;
+	
+	/** Whether the listener of a slot was set while the view was detached. */
+	private final boolean [] mReplaced;
+	
+	DetachedListeners(Object... listeners) {
+		mListeners = new WeakReference<?>[listeners.length];
+		mReplaced = new boolean[listeners.length];
+		for(int i = 0; i < listeners.length; i++) {
+			if(null != listeners[i]) {
+				mListeners[i] = new WeakReference<Object>(listeners[i]);
+			}
+		}
+	}
+	
+	/**
+	 * The listener of slot was set while the view was detached, do not take back the kept one.
+	 * @param slot
+	 */
+	void replace(int slot) {
+		mReplaced[slot] = true;
+		mListeners[slot] = null;
+	}
+	
+	/**
+	 * Take back the listener of slot.
+	 * @param slot
+	 * @param current the listener of the view now.
+	 * @return current if it was set while detached, otherwise the kept listener,
+	 * or null if it was not referenced by its owner any more.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T take(int slot, T current) {
+		if(mReplaced[slot]) {
+			return current;
+		}
+		return null == mListeners[slot] ? null : (T) mListeners[slot].get();
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Usage A debug watchdog of the time which listener callbacks take on main thread.<br>
+ * <p>{@link OnRefreshListener#onRefresh()} and {@link OnLoadMoreListener#onLoadMore()} are
+ * called in main thread while the user is pulling, a slow callback(reading files or network
+ * in it for example) freezes the gesture. When it was enabled, every dispatch is timed, and a
+ * dispatch which takes longer than the budget is reported with the stack of main thread
+ * sampled when the budget ran out, so the stack shows the slow code in the callback.<br>
+ * 
+ * <p>Reports go to {@link OnBudgetExceededListener}, or log if it is not set. Use
+ * {@link #setFailOnExceeded(boolean)} in tests to throw {@link BudgetExceededException}
+ * from the dispatch instead, unless the callback threw.<br>
+ * 
+ * <p>It is off by default, do not enable it in release builds.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public final class DispatchWatchdog {
+	
+	private static final String TAG = "DispatchWatchdog";
+	
+	/** The default budget of a dispatch, one frame, in milliseconds. */
+	public static final long DEFAULT_BUDGET = 16;
+	
+	private static volatile boolean sEnabled = false;
+	
+	private static volatile long sBudget = DEFAULT_BUDGET;
+	
+	private static volatile boolean sFailOnExceeded = false;
+	
+	private static volatile OnBudgetExceededListener sListener;
+	
+	private static Handler sSampler;
+	
+	private DispatchWatchdog() {}
+	
+	/**
+	 * Usage The listener of dispatches which took longer than the budget.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static interface OnBudgetExceededListener {
+		
+		/**
+		 * A dispatch took longer than the budget, it is called in the thread of dispatch.
+		 * @param e the exception with the name, time and stack of the dispatch.
+		 */
+		public void onBudgetExceeded(BudgetExceededException e);
+	}
+	
+	/**
+	 * Usage A dispatch took longer than the budget, the stack trace is the stack of
+	 * the dispatching thread when the budget ran out.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class BudgetExceededException extends RuntimeException {
+		
+		private static final long serialVersionUID = -4620935018271396741L;
+		
+		private final String mName;
+		
+		private final long mElapsed;
+		
+		private final long mBudget;
+		
+		private BudgetExceededException(String name, long elapsed, long budget) {
+			super(name + " took " + elapsed + "ms on main thread, budget is " + budget + "ms");
+			this.mName = name;
+			this.mElapsed = elapsed;
+			this.mBudget = budget;
+		}
+		
+		/**
+		 * Get the name of dispatch.
+		 * @return
+		 */
+		public String getName() {
+			return mName;
+		}
+		
+		/**
+		 * Get the time the dispatch took, in milliseconds.
+		 * @return
+		 */
+		public long getElapsed() {
+			return mElapsed;
+		}
+		
+		/**
+		 * Get the budget, in milliseconds.
+		 * @return
+		 */
+		public long getBudget() {
+			return mBudget;
+		}
+	}
+	
+	/**
+	 * Enable or disable the watchdog, disabled is default.
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		sEnabled = enabled;
+	}
+	
+	/**
+	 * Whether the watchdog is enabled.
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return sEnabled;
+	}
+	
+	/**
+	 * Set the budget of a dispatch.
+	 * @param budget in milliseconds.
+	 */
+	public static void setBudget(long budget) {
+		if(budget <= 0) {
+			throw new IllegalArgumentException("Budget must be greater than 0");
+		}
+		sBudget = budget;
+	}
+	
+	/**
+	 * Set whether to throw {@link BudgetExceededException} from the dispatch which took
+	 * longer than the budget, to fail tests.
+	 * @param fail
+	 */
+	public static void setFailOnExceeded(boolean fail) {
+		sFailOnExceeded = fail;
+	}
+	
+	/**
+	 * Set the listener of dispatches which took longer than the budget, null to log them.
+	 * @param listener
+	 */
+	public static void setOnBudgetExceededListener(OnBudgetExceededListener listener) {
+		sListener = listener;
+	}
+	
+	/**
+	 * Begin to time a dispatch.
+	 * @param name the name of dispatch.
+	 * @return the dispatch to pass to {@link #end(Dispatch)}, null if the watchdog is disabled.
+	 */
+	static Dispatch begin(String name) {
+		if(!sEnabled) {
+			return null;
+		}
+		final Dispatch dispatch = new Dispatch(name, sBudget);
+		getSampler().postDelayed(dispatch, dispatch.mBudget);
+		return dispatch;
+	}
+	
+	/**
+	 * End timing a dispatch, report it if it took longer than the budget.
+	 * @param dispatch returned by {@link #begin(String)}, can be null.
+	 * @param completed whether the callback returned, false if it threw. An exceeded budget is 
+	 * 	still reported, but never thrown over the exception of callback.
+	 */
+	static void end(Dispatch dispatch, boolean completed) {
+		if(null == dispatch) {
+			return;
+		}
+		getSampler().removeCallbacks(dispatch);
+		final long elapsed = SystemClock.uptimeMillis() - dispatch.mStartTime;
+		if(elapsed <= dispatch.mBudget) {
+			return;
+		}
+		BudgetExceededException e = new BudgetExceededException(dispatch.mName, elapsed, dispatch.mBudget);
+		StackTraceElement [] stack = dispatch.mStack;
+		if(null != stack && stack.length > 0) {
+			e.setStackTrace(stack);
+		}
+		final OnBudgetExceededListener listener = sListener;
+		if(null != listener) {
+			listener.onBudgetExceeded(e);
+		} else {
+			Log.w(TAG, e.getMessage(), e);
+		}
+		if(sFailOnExceeded && completed) {
+			throw e;
+		}
+	}
+	
+	private static synchronized Handler getSampler() {
+		if(null == sSampler) {
+			HandlerThread thread = new HandlerThread(TAG);
+			thread.start();
+			sSampler = new Handler(thread.getLooper());
+		}
+		return sSampler;
+	}
+	
+	/**
+	 * Usage A timed dispatch, samples the stack of the dispatching thread when the budget ran out.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	static final class Dispatch implements Runnable {
+		
+		private final String mName;
+		
+		private final long mBudget;
+		
+		private final Thread mThread = Thread.currentThread();
+		
+		private final long mStartTime = SystemClock.uptimeMillis();
+		
+		private volatile StackTraceElement [] mStack;
+		
+		private Dispatch(String name, long budget) {
+			this.mName = name;
+			this.mBudget = budget;
+		}
+		
+		@Override
+		public void run() {
+			mStack = mThread.getStackTrace();
+		}
+	}
+}
@@ -0,0 +1,564 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Usage A recorded trace of the touch events and scroll state changes of a pull view.<br>
+ * <p>Record a janky pull in the field with a {@link Recorder} set by setGestureRecorder() of
+ * {@link PullListView} or {@link PullScrollView}, save it with {@link #writeTo(OutputStream)},
+ * then load it with {@link #readFrom(InputStream)} and replay the touch events of its records
+ * on a device with a {@link Player}, or in tests with GestureScript.fromTrace() of PullViewTest.
+ * Compare frame timings of the replays with getFrameMetrics() of the view before and after a fix.<br>
+ * 
+ * <p>The touch events are replayed at the same positions in the view and with the same time,
+ * so replay on a screen of the same size, see {@link #getWidth()} and {@link #getHeight()}.
+ * Only the first pointer is recorded, as pull views only follow it. Scroll state changes are
+ * outputs of the list, they are kept to check whether a replay went the same way as recording,
+ * see {@link #getScrollStates()}.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class GestureTrace {
+	
+	/** The default max count of records of a recorder. */
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	private static final int MAGIC = 0x50565452; // "PVTR"
+	
+	private static final int VERSION = 1;
+	
+	private static final int TYPE_TOUCH = 0;
+	
+	private static final int TYPE_SCROLL_STATE = 1;
+	
+	private final int mWidth;
+	
+	private final int mHeight;
+	
+	private final int mCount;
+	
+	private final byte [] mTypes;
+	
+	/** The time since the first record, in milliseconds. */
+	private final int [] mTimes;
+	
+	/** The action of touch records, or the state of scroll state records. */
+	private final int [] mValues;
+	
+	private final float [] mXs;
+	
+	private final float [] mYs;
+	
+	/**
+	 * Usage Records the touch events and scroll state changes of a pull view.<br>
+	 * <p>Records are kept in arrays allocated once, so recording does not allocate objects
+	 * while pulling. Records after the capacity are dropped, see {@link #isOverflowed()}.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class Recorder {
+		
+		private final byte [] mTypes;
+		
+		private final int [] mTimes;
+		
+		private final int [] mValues;
+		
+		private final float [] mXs;
+		
+		private final float [] mYs;
+		
+		private int mCount = 0;
+		
+		private long mStartTime = -1;
+		
+		private int mWidth = 0;
+		
+		private int mHeight = 0;
+		
+		private boolean mOverflowed = false;
+		
+		public Recorder() {
+			this(DEFAULT_CAPACITY);
+		}
+		
+		public Recorder(int capacity) {
+			if(capacity <= 0) {
+				throw new IllegalArgumentException("Capacity must be greater than 0");
+			}
+			mTypes = new byte[capacity];
+			mTimes = new int[capacity];
+			mValues = new int[capacity];
+			mXs = new float[capacity];
+			mYs = new float[capacity];
+		}
+		
+		/**
+		 * Record a touch event which reaches the view.
+		 * @param view
+		 * @param event
+		 */
+		void recordTouch(View view, MotionEvent event) {
+			mWidth = view.getWidth();
+			mHeight = view.getHeight();
+			add(TYPE_TOUCH, event.getEventTime(), event.getActionMasked(), event.getX(), event.getY());
+		}
+		
+		/**
+		 * Record a scroll state change of the view.
+		 * @param scrollState
+		 */
+		void recordScrollState(int scrollState) {
+			add(TYPE_SCROLL_STATE, SystemClock.uptimeMillis(), scrollState, 0, 0);
+		}
+		
+		private void add(int type, long time, int value, float x, float y) {
+			if(mCount == mTypes.length) {
+				mOverflowed = true;
+				return;
+			}
+			if(mStartTime < 0) {
+				mStartTime = time;
+			}
+			mTypes[mCount] = (byte) type;
+			mTimes[mCount] = (int) Math.max(0, time - mStartTime);
+			mValues[mCount] = value;
+			mXs[mCount] = x;
+			mYs[mCount] = y;
+			mCount++;
+		}
+		
+		/**
+		 * Whether some records were dropped as the recorder was full.
+		 * @return
+		 */
+		public boolean isOverflowed() {
+			return mOverflowed;
+		}
+		
+		/**
+		 * Get the count of records.
+		 * @return
+		 */
+		public int getCount() {
+			return mCount;
+		}
+		
+		/**
+		 * Clear the records to record again.
+		 */
+		public void clear() {
+			mCount = 0;
+			mStartTime = -1;
+			mOverflowed = false;
+		}
+		
+		/**
+		 * Get the trace of the records.
+		 * @return
+		 */
+		public GestureTrace getTrace() {
+			return new GestureTrace(mWidth, mHeight, mCount, copy(mTypes, mCount), copy(mTimes, mCount), 
+					copy(mValues, mCount), copy(mXs, mCount), copy(mYs, mCount));
+		}
+	}
+	
+	/**
+	 * Usage Replays the touch events of a trace on a view with the time they were recorded.<br>
+	 * <p>After {@link #start()} every event is dispatched to the view in main thread at the time 
+	 * of its record, so the replay goes through the frames of the device like the recorded gesture 
+	 * did. If the main thread was late, the events due are dispatched at once with their recorded 
+	 * time, so the velocity of the gesture stays the same. Use it in a debug build to replay a trace 
+	 * recorded in the field, and read getFrameMetrics() of the view after it was played:<br>
+	 * <pre>
+	 * GestureTrace.Player player = new GestureTrace.Player(trace, listView);
+	 * player.setOnPlayedListener(listener);
+	 * player.start();
+	 * </pre>
+	 * Scroll the view to where it was when recording before starting, as the positions of events
+	 * are in the view.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class Player implements Runnable {
+		
+		private final GestureTrace mTrace;
+		
+		private final View mView;
+		
+		private final Handler mHandler = new Handler(Looper.getMainLooper());
+		
+		private OnPlayedListener mListener;
+		
+		private int mIndex = 0;
+		
+		/** The uptime of the first record in this play, -1 if not playing. */
+		private long mStartTime = -1;
+		
+		/** The uptime of the down event being replayed, -1 if no pointer is down. */
+		private long mDownTime = -1;
+		
+		/**
+		 * Usage The listener of the end of replaying.
+		 * 
+		 * @author yinglovezhuzhu@gmail.com
+		 */
+		public static interface OnPlayedListener {
+			
+			/**
+			 * All events of the trace were dispatched, called in main thread.
+			 * @param trace
+			 */
+			public void onPlayed(GestureTrace trace);
+		}
+		
+		public Player(GestureTrace trace, View view) {
+			if(null == trace || null == view) {
+				throw new IllegalArgumentException("Trace and view can not be null");
+			}
+			this.mTrace = trace;
+			this.mView = view;
+		}
+		
+		/**
+		 * Set the listener of the end of replaying.
+		 * @param listener
+		 */
+		public void setOnPlayedListener(OnPlayedListener listener) {
+			this.mListener = listener;
+		}
+		
+		/**
+		 * Start replaying from the first record, stops the replay running, must be called in main thread.
+		 */
+		public void start() {
+			if(Looper.myLooper() != Looper.getMainLooper()) {
+				throw new IllegalStateException("Gesture trace must be played in main thread");
+			}
+			stop();
+			mIndex = 0;
+			mStartTime = SystemClock.uptimeMillis();
+			run();
+		}
+		
+		/**
+		 * Stop replaying, the gesture being replayed is cancelled in the view.
+		 */
+		public void stop() {
+			if(mStartTime < 0) {
+				return;
+			}
+			mHandler.removeCallbacks(this);
+			mStartTime = -1;
+			if(mDownTime >= 0) {
+				//The view would wait for the up event forever.
+				final int last = mIndex - 1;
+				dispatch(MotionEvent.ACTION_CANCEL, SystemClock.uptimeMillis(), mTrace.mXs[last], mTrace.mYs[last]);
+			}
+		}
+		
+		/**
+		 * Whether it is replaying.
+		 * @return
+		 */
+		public boolean isPlaying() {
+			return mStartTime >= 0;
+		}
+		
+		@Override
+		public void run() {
+			if(mStartTime < 0) {
+				return;
+			}
+			final long now = SystemClock.uptimeMillis();
+			while(mIndex < mTrace.mCount && mStartTime + mTrace.mTimes[mIndex] <= now) {
+				if(mTrace.mTypes[mIndex] == TYPE_TOUCH) {
+					replay(mIndex);
+				}
+				mIndex++;
+			}
+			if(mIndex < mTrace.mCount) {
+				mHandler.postAtTime(this, mStartTime + mTrace.mTimes[mIndex]);
+				return;
+			}
+			mStartTime = -1;
+			if(null != mListener) {
+				mListener.onPlayed(mTrace);
+			}
+		}
+		
+		private void replay(int index) {
+			final long time = mStartTime + mTrace.mTimes[index];
+			final int action = mTrace.mValues[index];
+			switch (action) {
+			case MotionEvent.ACTION_DOWN:
+				mDownTime = time;
+				dispatch(action, time, mTrace.mXs[index], mTrace.mYs[index]);
+				break;
+			case MotionEvent.ACTION_MOVE:
+			case MotionEvent.ACTION_UP:
+			case MotionEvent.ACTION_CANCEL:
+				if(mDownTime >= 0) {
+					dispatch(action, time, mTrace.mXs[index], mTrace.mYs[index]);
+				}
+				break;
+			default:
+				//Other pointers were not recorded.
+				break;
+			}
+		}
+		
+		private void dispatch(int action, long time, float x, float y) {
+			final MotionEvent event = MotionEvent.obtain(mDownTime, time, action, x, y, 0);
+			try {
+				mView.dispatchTouchEvent(event);
+			} finally {
+				event.recycle();
+				if(action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+					mDownTime = -1;
+				}
+			}
+		}
+	}
+	
+	private GestureTrace(int width, int height, int count, byte [] types, int [] times, 
+			int [] values, float [] xs, float [] ys) {
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mCount = count;
+		this.mTypes = types;
+		this.mTimes = times;
+		this.mValues = values;
+		this.mXs = xs;
+		this.mYs = ys;
+	}
+	
+	/**
+	 * Get the width of the view which was recorded.
+	 * @return
+	 */
+	public int getWidth() {
+		return mWidth;
+	}
+	
+	/**
+	 * Get the height of the view which was recorded.
+	 * @return
+	 */
+	public int getHeight() {
+		return mHeight;
+	}
+	
+	/**
+	 * Get the count of records, touch events and scroll state changes.
+	 * @return
+	 */
+	public int getCount() {
+		return mCount;
+	}
+	
+	/**
+	 * Get the time from the first record to the last one, in milliseconds.
+	 * @return
+	 */
+	public long getDuration() {
+		return mCount == 0 ? 0 : mTimes[mCount - 1];
+	}
+	
+	/**
+	 * Get the scroll states in the order they were changed to.
+	 * @return
+	 */
+	public int [] getScrollStates() {
+		int size = 0;
+		for(int i = 0; i < mCount; i++) {
+			if(mTypes[i] == TYPE_SCROLL_STATE) {
+				size++;
+			}
+		}
+		final int [] states = new int[size];
+		for(int i = 0, j = 0; i < mCount; i++) {
+			if(mTypes[i] == TYPE_SCROLL_STATE) {
+				states[j++] = mValues[i];
+			}
+		}
+		return states;
+	}
+	
+	/**
+	 * Whether the record is a touch event, others are scroll state changes.
+	 * @param index the index of record, less than {@link #getCount()}.
+	 * @return
+	 */
+	public boolean isTouch(int index) {
+		return mTypes[index] == TYPE_TOUCH;
+	}
+	
+	/**
+	 * Get the time of record since the first one, in milliseconds.
+	 * @param index the index of record, less than {@link #getCount()}.
+	 * @return
+	 */
+	public int getTime(int index) {
+		return mTimes[index];
+	}
+	
+	/**
+	 * Get the action of touch event record, or the state of scroll state change record.
+	 * @param index the index of record, less than {@link #getCount()}.
+	 * @return
+	 */
+	public int getValue(int index) {
+		return mValues[index];
+	}
+	
+	/**
+	 * Get the x position in the view of touch event record.
+	 * @param index the index of record, less than {@link #getCount()}.
+	 * @return
+	 */
+	public float getX(int index) {
+		return mXs[index];
+	}
+	
+	/**
+	 * Get the y position in the view of touch event record.
+	 * @param index the index of record, less than {@link #getCount()}.
+	 * @return
+	 */
+	public float getY(int index) {
+		return mYs[index];
+	}
+	
+	/**
+	 * Write the trace in the compact binary format, the stream is not closed.<br>
+	 * <p>A touch event takes about 11 bytes, the time and action are written 
+	 * as variable length numbers.
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		writeVarInt(data, mWidth);
+		writeVarInt(data, mHeight);
+		writeVarInt(data, mCount);
+		int lastTime = 0;
+		for(int i = 0; i < mCount; i++) {
+			data.writeByte(mTypes[i]);
+			writeVarInt(data, mTimes[i] - lastTime);
+			writeVarInt(data, mValues[i]);
+			if(mTypes[i] == TYPE_TOUCH) {
+				data.writeFloat(mXs[i]);
+				data.writeFloat(mYs[i]);
+			}
+			lastTime = mTimes[i];
+		}
+		data.flush();
+	}
+	
+	/**
+	 * Read a trace written by {@link #writeTo(OutputStream)}, the stream is not closed.
+	 * @param in
+	 * @return
+	 * @throws IOException if it is not a trace or the version is not supported.
+	 */
+	public static GestureTrace readFrom(InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if(data.readInt() != MAGIC) {
+			throw new IOException("Not a gesture trace");
+		}
+		final int version = data.readUnsignedByte();
+		if(version != VERSION) {
+			throw new IOException("Unsupported gesture trace version " + version);
+		}
+		final int width = readVarInt(data);
+		final int height = readVarInt(data);
+		final int count = readVarInt(data);
+		final byte [] types = new byte[count];
+		final int [] times = new int[count];
+		final int [] values = new int[count];
+		final float [] xs = new float[count];
+		final float [] ys = new float[count];
+		int time = 0;
+		for(int i = 0; i < count; i++) {
+			types[i] = data.readByte();
+			time += readVarInt(data);
+			times[i] = time;
+			values[i] = readVarInt(data);
+			if(types[i] == TYPE_TOUCH) {
+				xs[i] = data.readFloat();
+				ys[i] = data.readFloat();
+			} else if(types[i] != TYPE_SCROLL_STATE) {
+				throw new IOException("Unknown record type " + types[i]);
+			}
+		}
+		return new GestureTrace(width, height, count, types, times, values, xs, ys);
+	}
+	
+	private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			data.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data.writeByte(value);
+	}
+	
+	private static int readVarInt(DataInputStream data) throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 32; shift += 7) {
+			final int b = data.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length number");
+	}
+	
+	private static byte [] copy(byte [] array, int length) {
+		final byte [] copy = new byte[length];
+		System.arraycopy(array, 0, copy, 0, length);
+		return copy;
+	}
+	
+	private static int [] copy(int [] array, int length) {
+		final int [] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, length);
+		return copy;
+	}
+	
+	private static float [] copy(float [] array, int length) {
+		final float [] copy = new float[length];
+		System.arraycopy(array, 0, copy, 0, length);
+		return copy;
+	}
+}
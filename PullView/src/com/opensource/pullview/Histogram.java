@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Usage A histogram of fixed buckets, used by the metrics of pull views.<br>
+ * <p>Buckets are set in constructor and never change, so recording a value allocates
+ * nothing and takes no lock, it can be read or snapshot in any thread(a background
+ * reporting thread for example) while the main thread is recording.<br>
+ * 
+ * <p>Percentiles are estimated in the bucket, so they are as exact as the buckets are.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class Histogram {
+
+	/** The upper bounds(inclusive) of buckets, the last bucket holds values greater than all. */
+	private final long [] mBounds;
+	
+	private final AtomicLongArray mCounts;
+	
+	private final AtomicLong mCount = new AtomicLong();
+	
+	private final AtomicLong mSum = new AtomicLong();
+	
+	private final AtomicLong mMax = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * @param bounds the upper bounds of buckets, must be positive and increasing.
+	 */
+	public Histogram(long [] bounds) {
+		if(null == bounds || bounds.length == 0) {
+			throw new IllegalArgumentException("Bounds can not be empty");
+		}
+		for(int i = 0; i < bounds.length; i++) {
+			if(bounds[i] <= 0 || (i > 0 && bounds[i] <= bounds[i - 1])) {
+				throw new IllegalArgumentException("Bounds must be positive and increasing");
+			}
+		}
+		mBounds = bounds.clone();
+		mCounts = new AtomicLongArray(bounds.length + 1);
+	}
+	
+	/**
+	 * Record a value, negative value is recorded as 0.
+	 * @param value
+	 */
+	public void record(long value) {
+		if(value < 0) {
+			value = 0;
+		}
+		mCounts.incrementAndGet(indexOf(value));
+		mCount.incrementAndGet();
+		mSum.addAndGet(value);
+		long max = mMax.get();
+		while(value > max && !mMax.compareAndSet(max, value)) {
+			max = mMax.get();
+		}
+	}
+	
+	/**
+	 * Get the count of recorded values.
+	 * @return
+	 */
+	public long getCount() {
+		return mCount.get();
+	}
+	
+	/**
+	 * Get the percentile of recorded values.
+	 * @param percent in range of [0, 100].
+	 * @return 0 if nothing was recorded.
+	 */
+	public long getPercentile(float percent) {
+		return snapshot().getPercentile(percent);
+	}
+	
+	/**
+	 * Copy the values recorded now, the histogram can be recording while copying, so the
+	 * snapshot may miss values which are being recorded.
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		long [] counts = new long[mCounts.length()];
+		long count = 0;
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] = mCounts.get(i);
+			count += counts[i];
+		}
+		return new Snapshot(mBounds, counts, count, mSum.get(), mMax.get());
+	}
+	
+	/**
+	 * Clear all recorded values.
+	 */
+	public void reset() {
+		for(int i = 0; i < mCounts.length(); i++) {
+			mCounts.set(i, 0);
+		}
+		mCount.set(0);
+		mSum.set(0);
+		mMax.set(0);
+	}
+	
+	private int indexOf(long value) {
+		int low = 0;
+		int high = mBounds.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(mBounds[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Usage The values of a histogram at a moment.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class Snapshot {
+		
+		private final long [] mBounds;
+		
+		private final long [] mCounts;
+		
+		private final long mCount;
+		
+		private final long mSum;
+		
+		private final long mMax;
+		
+		private Snapshot(long [] bounds, long [] counts, long count, long sum, long max) {
+			this.mBounds = bounds;
+			this.mCounts = counts;
+			this.mCount = count;
+			this.mSum = sum;
+			this.mMax = max;
+		}
+		
+		/**
+		 * Get the upper bounds of buckets.
+		 * @return
+		 */
+		public long [] getBounds() {
+			return mBounds.clone();
+		}
+		
+		/**
+		 * Get the counts of buckets, one more than bounds, the last is the count of values
+		 * greater than all bounds.
+		 * @return
+		 */
+		public long [] getCounts() {
+			return mCounts.clone();
+		}
+		
+		public long getCount() {
+			return mCount;
+		}
+		
+		public long getSum() {
+			return mSum;
+		}
+		
+		public long getMax() {
+			return mMax;
+		}
+		
+		/**
+		 * Get the mean value.
+		 * @return 0 if nothing was recorded.
+		 */
+		public long getMean() {
+			return mCount == 0 ? 0 : mSum / mCount;
+		}
+		
+		/**
+		 * Get the percentile, estimated linearly in the bucket.
+		 * @param percent in range of [0, 100].
+		 * @return 0 if nothing was recorded.
+		 */
+		public long getPercentile(float percent) {
+			if(percent < 0 || percent > 100) {
+				throw new IllegalArgumentException("Percent must be in range of [0, 100]");
+			}
+			if(mCount == 0) {
+				return 0;
+			}
+			final double rank = percent / 100.0 * mCount;
+			long passed = 0;
+			for(int i = 0; i < mCounts.length; i++) {
+				if(mCounts[i] == 0) {
+					continue;
+				}
+				if(passed + mCounts[i] >= rank) {
+					long lower = i == 0 ? 0 : mBounds[i - 1];
+					long upper = i < mBounds.length ? Math.min(mBounds[i], mMax) : mMax;
+					if(upper <= lower) {
+						return upper;
+					}
+					return lower + (long) ((upper - lower) * (rank - passed) / mCounts[i]);
+				}
+				passed += mCounts[i];
+			}
+			return mMax;
+		}
+	}
+}
@@ -34,4 +34,7 @@ public interface IPullView {
 	
 	public static final int ROTATE_ANIMATION_DURATION = 250;
 
+	/** The finger velocity(dips per second) to load when released before the threshold */
+	public static final int FLING_TO_LOAD_VELOCITY = 1200;
+
 }
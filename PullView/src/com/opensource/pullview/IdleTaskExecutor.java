@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Usage An executor runs tasks on main thread when the list is not scrolling.<br>
+ * <p>Tasks which are not urgent(decoding images, statistics, binding rows in advance...)
+ * are queued while the list is scrolling or flinging, and run in batches after it was idle.
+ * Every batch runs at most {@link #setFrameBudget(long)} milliseconds, and the next batch
+ * is posted after it, so the frames are still drawn in time.<br>
+ *
+ * <p>Tasks can be added in any thread, and they always run in main thread in order.
+ * Get it with {@link PullListView#getIdleExecutor()}.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class IdleTaskExecutor implements Executor {
+
+	/** The default time of a batch, in milliseconds. */
+	public static final long DEFAULT_FRAME_BUDGET = 4;
+
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+	private final LinkedList<Runnable> mTasks = new LinkedList<Runnable>();
+
+	private long mFrameBudget = DEFAULT_FRAME_BUDGET;
+
+	private boolean mIdle = true;
+
+	private boolean mScheduled = false;
+
+	private final Runnable mDrainRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	/**
+	 * Add a task, it will run in main thread when the list is idle.
+	 */
+	@Override
+	public void execute(Runnable task) {
+		if(null == task) {
+			throw new NullPointerException("Task can not be null");
+		}
+		synchronized (mTasks) {
+			mTasks.add(task);
+			scheduleLocked();
+		}
+	}
+
+	/**
+	 * Remove a task which has not run.
+	 * @param task
+	 * @return true if the task was removed.
+	 */
+	public boolean remove(Runnable task) {
+		synchronized (mTasks) {
+			return mTasks.remove(task);
+		}
+	}
+
+	/**
+	 * Remove all tasks which have not run.
+	 */
+	public void clear() {
+		synchronized (mTasks) {
+			mTasks.clear();
+		}
+	}
+
+	/**
+	 * Get the count of tasks which have not run.
+	 * @return
+	 */
+	public int getPendingCount() {
+		synchronized (mTasks) {
+			return mTasks.size();
+		}
+	}
+
+	/**
+	 * Set the max time of a batch.
+	 * @param budget in milliseconds.
+	 */
+	public void setFrameBudget(long budget) {
+		if(budget <= 0) {
+			throw new IllegalArgumentException("Frame budget must be greater than 0");
+		}
+		this.mFrameBudget = budget;
+	}
+
+	/**
+	 * Whether the list is idle.
+	 * @return
+	 */
+	public boolean isIdle() {
+		synchronized (mTasks) {
+			return mIdle;
+		}
+	}
+
+	/**
+	 * Set whether the list is idle, the tasks wait until it was idle.
+	 * @param idle
+	 */
+	void setIdle(boolean idle) {
+		synchronized (mTasks) {
+			mIdle = idle;
+			scheduleLocked();
+		}
+	}
+
+	/**
+	 * Stop running tasks until {@link #setIdle(boolean)} is called, the batch posted is removed
+	 * and the tasks are kept. Used when the list was detached.
+	 */
+	void pause() {
+		synchronized (mTasks) {
+			mIdle = false;
+			if(mScheduled) {
+				mHandler.removeCallbacks(mDrainRunnable);
+				mScheduled = false;
+			}
+		}
+	}
+
+	private void scheduleLocked() {
+		if(mIdle && !mScheduled && !mTasks.isEmpty()) {
+			mScheduled = true;
+			mHandler.post(mDrainRunnable);
+		}
+	}
+
+	/**
+	 * Run a batch of tasks, and post the next batch if there are tasks left.
+	 * The next batch is posted even if a task throws, so the queue never stalls.
+	 */
+	private void drain() {
+		final long deadline = SystemClock.uptimeMillis() + mFrameBudget;
+		try {
+			while(true) {
+				Runnable task;
+				synchronized (mTasks) {
+					if(!mIdle || mTasks.isEmpty()) {
+						return;
+					}
+					task = mTasks.removeFirst();
+				}
+				task.run();
+				if(SystemClock.uptimeMillis() >= deadline) {
+					break;
+				}
+			}
+		} finally {
+			synchronized (mTasks) {
+				mScheduled = false;
+				scheduleLocked();
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.widget.ProgressBar;
+
+/**
+ * Usage A progress bar which is never shown, it passes the visibility and indeterminate drawable
+ * set on it to the progress of a {@link PullIndicatorView}.<br>
+ * <p>The pull views have no progress bar since the indicator is drawn in one view, this is
+ * returned by their deprecated progress bar getters, so the old callers still work.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+final class IndicatorProgressBar extends ProgressBar {
+	
+	private final PullIndicatorView mIndicatorView;
+	
+	IndicatorProgressBar(Context context, PullIndicatorView indicatorView) {
+		super(context);
+		this.mIndicatorView = indicatorView;
+	}
+	
+	@Override
+	public void setVisibility(int visibility) {
+		super.setVisibility(visibility);
+		//Called by the constructor of progress bar before the indicator was set.
+		if(null != mIndicatorView) {
+			mIndicatorView.setProgressVisible(visibility == VISIBLE);
+		}
+	}
+	
+	@Override
+	public void setIndeterminateDrawable(Drawable d) {
+		super.setIndeterminateDrawable(d);
+		if(null != mIndicatorView) {
+			mIndicatorView.setProgressDrawable(d);
+		}
+	}
+	
+	@Override
+	public Drawable getIndeterminateDrawable() {
+		return null == mIndicatorView ? super.getIndeterminateDrawable() : mIndicatorView.getProgressDrawable();
+	}
+}
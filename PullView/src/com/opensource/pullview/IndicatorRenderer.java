@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.graphics.Canvas;
+
+/**
+ * Usage The renderer of a header or footer indicator, draws the whole indicator itself.<br>
+ * <p>Set by setHeaderRenderer() or setFooterRenderer() of {@link PullListView} and 
+ * {@link PullScrollView}, it replaces the arrow, progress and text of the default indicator.
+ * No views are created for it, the pull view gives the pull fraction and state to it in every 
+ * frame the indicator is drawn, and it draws into the canvas of the indicator. Keep the draw
+ * free of allocations, it is on the pulling path.<br>
+ * 
+ * <pre>
+ * listView.setHeaderRenderer(new IndicatorRenderer() {
+ * 	public boolean draw(Canvas canvas, int width, int height, float fraction, int state) {
+ * 		canvas.drawCircle(width / 2f, height / 2f, height / 3f * Math.min(1f, fraction), mPaint);
+ * 		return state == IPullView.LOADING;
+ * 	}
+ * });
+ * </pre>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public interface IndicatorRenderer {
+
+	/**
+	 * Draw the indicator.
+	 * @param canvas the canvas of indicator view.
+	 * @param width the width of indicator.
+	 * @param height the fixed height of indicator, the size of the header or footer when fully shown.
+	 * @param fraction how far it was pulled, 0 is hidden, 1 is fully shown which is the threshold
+	 * of release to load, greater than 1 when pulled further.
+	 * @param state the state of pull view, {@link IPullView#PULL_TO_LOAD}, {@link IPullView#RELEASE_TO_LOAD},
+	 * {@link IPullView#LOADING} or {@link IPullView#IDEL}.
+	 * @return true to be drawn again in next frame for an animation, it is paused while the 
+	 * indicator is hidden.
+	 */
+	public boolean draw(Canvas canvas, int width, int height, float fraction, int state);
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+/**
+ * Usage The listener to load more data in background thread.<br>
+ * <p>{@link #onLoadMoreInBackground()} runs in a background thread, the result is passed to
+ * {@link #onLoadedMore(Object)} in main thread, then the pull view completes loading by
+ * itself, so do not call loadMoreCompleted(). The result of loading which timed out or
+ * was replaced is dropped, {@link #onLoadedMore(Object)} is not called for it.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public interface OnLoadMoreInBackgroundListener<T> {
+
+	/**
+	 * Load more data, runs in a background thread.
+	 * @return the data.
+	 * @throws Exception
+	 */
+	public T onLoadMoreInBackground() throws Exception;
+	
+	/**
+	 * Loading more succeeded, add data to adapter, runs in main thread.
+	 * @param result
+	 * @return whether there is more data to load.
+	 */
+	public boolean onLoadedMore(T result);
+	
+	/**
+	 * Loading more failed, runs in main thread, it can load more again.
+	 * @param e
+	 */
+	public void onLoadMoreFailed(Exception e);
+	
+}
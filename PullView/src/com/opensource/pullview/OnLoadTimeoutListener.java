@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+/**
+ * Usage The listener to listen refreshing or loading more which was not completed in time.<br>
+ * <p>The pull view went back to idle state when it is called, and the completion of the
+ * operation which timed out will be ignored.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public interface OnLoadTimeoutListener {
+
+	/**
+	 * Refreshing was not completed in time.
+	 */
+	public void onRefreshTimeout();
+	
+	/**
+	 * Loading more was not completed in time.
+	 */
+	public void onLoadMoreTimeout();
+	
+}
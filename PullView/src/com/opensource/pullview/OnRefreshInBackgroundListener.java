@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+/**
+ * Usage The listener to refresh data in background thread.<br>
+ * <p>{@link #onRefreshInBackground()} runs in a background thread, the result is passed to
+ * {@link #onRefreshed(Object)} in main thread, then the pull view completes refreshing by
+ * itself, so do not call refreshCompleted(). The result of refreshing which timed out or
+ * was replaced is dropped, {@link #onRefreshed(Object)} is not called for it.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public interface OnRefreshInBackgroundListener<T> {
+
+	/**
+	 * Refresh data, runs in a background thread.
+	 * @return the data.
+	 * @throws Exception
+	 */
+	public T onRefreshInBackground() throws Exception;
+	
+	/**
+	 * Refreshing succeeded, set data to adapter, runs in main thread.
+	 * @param result
+	 */
+	public void onRefreshed(T result);
+	
+	/**
+	 * Refreshing failed, runs in main thread.
+	 * @param e
+	 */
+	public void onRefreshFailed(Exception e);
+	
+}
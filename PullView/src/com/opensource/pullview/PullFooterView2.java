@@ -17,17 +17,16 @@
  */	
 package com.opensource.pullview;
 
+import com.opensource.pullview.utils.TraceUtil;
 import com.opensource.pullview.utils.ViewUtil;
 
 import android.content.Context;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.view.Gravity;
 import android.view.View;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.TextView;
 
 /**
  * Usage The footer view of pull view
@@ -48,14 +47,11 @@ public class PullFooterView2 extends LinearLayout {
 	/** The Constant STATE_EMPTY. */
 	public final static int STATE_EMPTY = 4;
 
-	/** The footer view. */
-	private LinearLayout footerView;
+	/** The footer indicator view, paints progress and text. */
+	private PullIndicatorView footerView;
 	
-	/** The footer progress bar. */
-	private ProgressBar mFooterProgress;
-	
-	/** The footer text view. */
-	private TextView footerTextView;
+	/** The progress bar returned by the deprecated getter, created when it is got. */
+	private IndicatorProgressBar mProgressBar;
 	
 	/** The footer content height. */
 	private int footerHeight;
@@ -88,29 +84,9 @@ public class PullFooterView2 extends LinearLayout {
 	 * @param context the context
 	 */
 	private void initView(Context context) {
-		footerView  = new LinearLayout(context);  
-		footerView.setOrientation(LinearLayout.HORIZONTAL);
-		footerView.setGravity(Gravity.CENTER); 
-		//setBackgroundColor(Color.rgb(225, 225,225));
-		footerTextView = new TextView(context);  
-		footerTextView.setGravity(Gravity.CENTER_VERTICAL);
+		footerView = new PullIndicatorView(context, false);
+		footerView.setArrowVisible(false);
 		setTextColor(Color.rgb(107, 107, 107));
-		footerTextView.setTextSize(15);
-		footerTextView.setMinimumHeight(50);
-		footerView.setPadding(0, 10, 0, 10);
-		
-		mFooterProgress = new ProgressBar(context,null,android.R.attr.progressBarStyle);
-		mFooterProgress.setVisibility(View.GONE);
-		
-		LinearLayout.LayoutParams layoutParamsWW = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		layoutParamsWW.gravity = Gravity.CENTER;
-		layoutParamsWW.width = 50;
-		layoutParamsWW.height = 50;
-		layoutParamsWW.rightMargin = 10;
-		footerView.addView(mFooterProgress,layoutParamsWW);
-		
-		LinearLayout.LayoutParams layoutParamsWW1 = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		footerView.addView(footerTextView,layoutParamsWW1);
 		
 		LinearLayout.LayoutParams layoutParamsFW = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
 		addView(footerView,layoutParamsFW);
@@ -125,28 +101,29 @@ public class PullFooterView2 extends LinearLayout {
 	 * @param state the new state
 	 */
 	public void setState(int state) {
-		
+		final boolean traced = TraceUtil.beginSection(TraceUtil.UPDATE_FOOTER);
 		if (state == STATE_READY) {
 			footerView.setVisibility(View.VISIBLE);
-			footerTextView.setVisibility(View.VISIBLE);
-			mFooterProgress.setVisibility(View.GONE);
-			footerTextView.setText("载入更多");
+			footerView.setTitleVisible(true);
+			footerView.setProgressVisible(false);
+			footerView.setTitleText("载入更多");
 		} else if (state == STATE_LOADING) {
 			footerView.setVisibility(View.VISIBLE);
-			footerTextView.setVisibility(View.VISIBLE);
-			mFooterProgress.setVisibility(View.VISIBLE);
-			footerTextView.setText("正在加载...");
+			footerView.setTitleVisible(true);
+			footerView.setProgressVisible(true);
+			footerView.setTitleText("正在加载...");
 		}else if(state == STATE_NO){
 			footerView.setVisibility(View.GONE);
-			footerTextView.setVisibility(View.VISIBLE);
-			mFooterProgress.setVisibility(View.GONE);
-			footerTextView.setText("已是全部");
+			footerView.setTitleVisible(true);
+			footerView.setProgressVisible(false);
+			footerView.setTitleText("已是全部");
 		}else if(state == STATE_EMPTY){
 			footerView.setVisibility(View.GONE);
-			footerTextView.setVisibility(View.GONE);
-			mFooterProgress.setVisibility(View.GONE);
-			footerTextView.setText("没有数据");
+			footerView.setTitleVisible(false);
+			footerView.setProgressVisible(false);
+			footerView.setTitleText("没有数据");
 		}
+		TraceUtil.endSection(traced);
 	}
 	
 	/**
@@ -186,7 +163,7 @@ public class PullFooterView2 extends LinearLayout {
 	 * @throws 
 	 */
 	public void setTextColor(int color){
-		footerTextView.setTextColor(color);
+		footerView.setTitleTextColor(color);
 	}
 	
 	/**
@@ -201,12 +178,27 @@ public class PullFooterView2 extends LinearLayout {
 
 	/**
 	 * 
-	 * 描述：获取Footer ProgressBar，用于设置自定义样式
+	 * 描述：获取Footer progress drawable
 	 * @return
 	 * @throws 
 	 */
+	public Drawable getFooterProgressDrawable() {
+		return footerView.getProgressDrawable();
+	}
+
+	/**
+	 * Get footer progress
+	 * @return a progress bar which is not shown, the visibility and indeterminate drawable set on it
+	 * are passed to the progress of the indicator.
+	 * @deprecated There is no progress bar since the indicator is drawn in one view,
+	 * use {@link #getFooterProgressDrawable()} and {@link #setFooterProgressDrawable(Drawable)} instead.
+	 */
+	@Deprecated
 	public ProgressBar getFooterProgress() {
-		return mFooterProgress;
+		if(null == mProgressBar) {
+			mProgressBar = new IndicatorProgressBar(getContext(), footerView);
+		}
+		return mProgressBar;
 	}
 
 	/**
@@ -216,7 +208,7 @@ public class PullFooterView2 extends LinearLayout {
 	 * @throws 
 	 */
 	public void setFooterProgressDrawable(Drawable indeterminateDrawable) {
-		mFooterProgress.setIndeterminateDrawable(indeterminateDrawable);
+		footerView.setProgressDrawable(indeterminateDrawable);
 	}
 
 	/**
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import android.content.Context;
+import android.support.v4.view.ViewCompat;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowManager;
+
+/**
+ * Usage The frame metrics of a pull view, records how long every frame took while
+ * dragging, settling and loading.<br>
+ * <p>While dragging and settling the frames are stepped by a callback posted in every 
+ * frame(vsync), the time between two callbacks is the frame time. A loading may last for 
+ * seconds, so no callback is posted then, the frames are stepped by the draws of the 
+ * spinning indicator, which redraws in every frame anyway. Frame times go to a
+ * {@link Histogram} of each phase, and the frames missed are counted as dropped frames.
+ * Nothing is allocated while recording, and a snapshot can be taken in any thread.<br>
+ * 
+ * <p>Before Android 4.1 frames are not stepped by vsync, the frame times are rough there.
+ * Get it with {@link PullListView#getFrameMetrics()} or {@link PullScrollView#getFrameMetrics()}.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class PullFrameMetrics implements Runnable {
+	
+	/** No phase is running, frames are not recorded. */
+	public static final int PHASE_NONE = -1;
+	/** Header view or footer view is dragged by finger. */
+	public static final int PHASE_DRAG = 0;
+	/** Header view or footer view is settling after the finger left. */
+	public static final int PHASE_SETTLE = 1;
+	/** Refreshing or loading more. */
+	public static final int PHASE_LOADING = 2;
+	/** The count of phases. */
+	public static final int PHASE_COUNT = 3;
+	
+	/** The upper bounds of frame time buckets, in milliseconds. */
+	private static final long [] FRAME_TIME_BOUNDS = {
+		4, 8, 12, 16, 20, 24, 33, 50, 67, 100, 150, 250, 500, 1000,
+	};
+	
+	private static final float DEFAULT_REFRESH_RATE = 60f;
+	
+	private final View mHost;
+	
+	private final Histogram [] mFrameTimes = new Histogram[PHASE_COUNT];
+	
+	private final AtomicLongArray mDroppedFrames = new AtomicLongArray(PHASE_COUNT);
+	
+	/** The time of one frame, in nanoseconds. */
+	private final long mFrameInterval;
+	
+	private int mPhase = PHASE_NONE;
+	
+	/** The time of last frame in nanoseconds, 0 if no frame was stepped. */
+	private long mLastFrameTime = 0;
+	
+	private boolean mRunning = false;
+	
+	/**
+	 * Constructor
+	 * @param host the view to step frames.
+	 */
+	public PullFrameMetrics(View host) {
+		this.mHost = host;
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			mFrameTimes[i] = new Histogram(FRAME_TIME_BOUNDS);
+		}
+		mFrameInterval = (long) (1000000000L / getRefreshRate(host.getContext()));
+	}
+	
+	/**
+	 * Get the frame time histogram of a phase.
+	 * @param phase one of {@link #PHASE_DRAG}, {@link #PHASE_SETTLE} and {@link #PHASE_LOADING}.
+	 * @return the histogram in milliseconds.
+	 */
+	public Histogram getFrameTimes(int phase) {
+		return mFrameTimes[phase];
+	}
+	
+	/**
+	 * Get the count of dropped frames of a phase.
+	 * @param phase one of {@link #PHASE_DRAG}, {@link #PHASE_SETTLE} and {@link #PHASE_LOADING}.
+	 * @return
+	 */
+	public long getDroppedFrames(int phase) {
+		return mDroppedFrames.get(phase);
+	}
+	
+	/**
+	 * Copy the metrics of all phases recorded now.
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		Histogram.Snapshot [] frameTimes = new Histogram.Snapshot[PHASE_COUNT];
+		long [] droppedFrames = new long[PHASE_COUNT];
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			frameTimes[i] = mFrameTimes[i].snapshot();
+			droppedFrames[i] = mDroppedFrames.get(i);
+		}
+		return new Snapshot(frameTimes, droppedFrames);
+	}
+	
+	/**
+	 * Clear all recorded metrics.
+	 */
+	public void reset() {
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			mFrameTimes[i].reset();
+			mDroppedFrames.set(i, 0);
+		}
+	}
+	
+	/**
+	 * Get the running phase.
+	 * @return
+	 */
+	public int getPhase() {
+		return mPhase;
+	}
+	
+	/**
+	 * Set the running phase, frames are recorded until it was set to {@link #PHASE_NONE}.
+	 * @param phase
+	 */
+	public void setPhase(int phase) {
+		if(phase == mPhase) {
+			return;
+		}
+		mPhase = phase;
+		mLastFrameTime = 0;
+		if(phase == PHASE_NONE || phase == PHASE_LOADING) {
+			//Loading frames are stepped by the draws of indicator.
+			if(mRunning) {
+				mRunning = false;
+				mHost.removeCallbacks(this);
+			}
+		} else if(!mRunning) {
+			mRunning = true;
+			ViewCompat.postOnAnimation(mHost, this);
+		}
+	}
+	
+	/**
+	 * The spinning indicator was drawn, step a frame if loading.
+	 */
+	void onLoadingFrame() {
+		if(mPhase == PHASE_LOADING) {
+			step();
+		}
+	}
+	
+	/**
+	 * The spinning indicator stopped redrawing(it was hidden), the time until 
+	 * it is drawn again is not a frame.
+	 */
+	void onLoadingPaused() {
+		if(mPhase == PHASE_LOADING) {
+			mLastFrameTime = 0;
+		}
+	}
+	
+	@Override
+	public void run() {
+		if(!mRunning) {
+			return;
+		}
+		step();
+		ViewCompat.postOnAnimation(mHost, this);
+	}
+	
+	private void step() {
+		final long now = System.nanoTime();
+		if(mLastFrameTime > 0) {
+			final long frameTime = now - mLastFrameTime;
+			mFrameTimes[mPhase].record(frameTime / 1000000L);
+			final long missed = (frameTime + mFrameInterval / 2) / mFrameInterval - 1;
+			if(missed > 0) {
+				mDroppedFrames.addAndGet(mPhase, missed);
+			}
+		}
+		mLastFrameTime = now;
+	}
+	
+	private static float getRefreshRate(Context context) {
+		WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+		if(null != wm) {
+			Display display = wm.getDefaultDisplay();
+			if(null != display && display.getRefreshRate() >= 10f) {
+				return display.getRefreshRate();
+			}
+		}
+		return DEFAULT_REFRESH_RATE;
+	}
+	
+	/**
+	 * Usage The frame metrics of all phases at a moment.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class Snapshot {
+		
+		private final Histogram.Snapshot [] mFrameTimes;
+		
+		private final long [] mDroppedFrames;
+		
+		private Snapshot(Histogram.Snapshot [] frameTimes, long [] droppedFrames) {
+			this.mFrameTimes = frameTimes;
+			this.mDroppedFrames = droppedFrames;
+		}
+		
+		/**
+		 * Get the frame times of a phase, in milliseconds.
+		 * @param phase
+		 * @return
+		 */
+		public Histogram.Snapshot getFrameTimes(int phase) {
+			return mFrameTimes[phase];
+		}
+		
+		/**
+		 * Get the count of dropped frames of a phase.
+		 * @param phase
+		 * @return
+		 */
+		public long getDroppedFrames(int phase) {
+			return mDroppedFrames[phase];
+		}
+	}
+}
@@ -18,18 +18,12 @@
 package com.opensource.pullview;
 
 import android.content.Context;
-import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.util.TypedValue;
-import android.view.Gravity;
 import android.view.View;
 import android.view.animation.Animation;
-import android.widget.FrameLayout;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.TextView;
 
 import com.opensource.pullview.utils.ViewUtil;
 
@@ -40,20 +34,11 @@ import com.opensource.pullview.utils.ViewUtil;
  */
 public class PullHeaderView extends LinearLayout {
 
-	/** The header view. */
-	private LinearLayout mHeaderView;
+	/** The indicator view, paints arrow, progress, title and label. */
+	private PullIndicatorView mIndicatorView;
 	
-	/** The arrow image view. */
-	private ImageView mArrowImageView;
-	
-	/** The header progress bar. */
-	private ProgressBar mProgress;
-	
-	/** The tips textview. */
-	private TextView mTvTitle;
-	
-	/** The header time view. */
-	private TextView mTvLabel;
+	/** The progress bar returned by the deprecated getter, created when it is got. */
+	private IndicatorProgressBar mProgressBar;
 	
 	/** The head content height. */
 	private int mHeaderViewHeight;
@@ -85,66 +70,12 @@ public class PullHeaderView extends LinearLayout {
 	 * @param context the context
 	 */
 	private void initView(Context context) {
-		
-		mHeaderView = new LinearLayout(context);
-		mHeaderView.setOrientation(LinearLayout.HORIZONTAL);
-		//setBackgroundColor(Color.rgb(225, 225,225));
-		mHeaderView.setGravity(Gravity.CENTER); 
-		mHeaderView.setPadding(0, 5, 0, 5);
-		
-		FrameLayout headImage =  new FrameLayout(context);
-		mArrowImageView = new ImageView(context);
-		mArrowImageView.setImageResource(R.drawable.pullview_down_arrow);
-		
-		//style="?android:attr/progressBarStyleSmall" default style
-		mProgress = new ProgressBar(context,null,android.R.attr.progressBarStyle);
-		mProgress.setVisibility(View.GONE);
-		
-		//Arrow icon and progress
-		LinearLayout.LayoutParams iconLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		iconLp.gravity = Gravity.CENTER;
-		iconLp.width = 50;
-		iconLp.height = 50;
-		headImage.addView(mArrowImageView,iconLp);
-		headImage.addView(mProgress,iconLp);
-		
-		//Header text
-		LinearLayout headTextLayout  = new LinearLayout(context);
-		mTvTitle = new TextView(context);
-		mTvLabel = new TextView(context);
-		headTextLayout.setOrientation(LinearLayout.VERTICAL);
-		headTextLayout.setGravity(Gravity.CENTER_VERTICAL|Gravity.LEFT);
-		headTextLayout.setPadding(12,0,0,0);
-		LinearLayout.LayoutParams textLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		headTextLayout.addView(mTvTitle,textLp);
-		headTextLayout.addView(mTvLabel,textLp);
-		mTvTitle.setTextColor(Color.argb(255, 50, 50, 50));
-		mTvLabel.setTextColor(Color.argb(255, 255, 110, 0));
-		mTvTitle.setTextSize(TypedValue.COMPLEX_UNIT_SP, 16);
-		mTvLabel.setTextSize(TypedValue.COMPLEX_UNIT_SP, 14);
-		
-		LinearLayout.LayoutParams contentLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		contentLp.gravity = Gravity.CENTER;
-		contentLp.bottomMargin = 5;
-		contentLp.topMargin = 5;
-		
-		LinearLayout headerLayout = new LinearLayout(context);
-		headerLayout.setOrientation(LinearLayout.HORIZONTAL);
-		headerLayout.setGravity(Gravity.CENTER); 
-		
-		headerLayout.addView(headImage,contentLp);
-		headerLayout.addView(headTextLayout,contentLp);
-		
+		mIndicatorView = new PullIndicatorView(context, true);
 		LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
-		lp.gravity = Gravity.CENTER;
-		
-		mHeaderView.addView(headerLayout,lp);
-		
-		this.addView(mHeaderView,lp);
-		//Get height of this header view.
+		this.addView(mIndicatorView, lp);
+		//Get height of this header view, the indicator has a fixed height so measuring it is cheap.
 		ViewUtil.measureView(this);
 		mHeaderViewHeight = this.getMeasuredHeight();
-		
 	}
 
 	/**
@@ -152,7 +83,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param visibility
 	 */
 	public void setArrowVisibility(int visibility) {
-		mArrowImageView.setVisibility(visibility);
+		mIndicatorView.setArrowVisible(visibility == View.VISIBLE);
 	}
 	
 	/**
@@ -160,7 +91,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param visibility
 	 */
 	public void setProgressVisibility(int visibility) {
-		mProgress.setVisibility(visibility);
+		mIndicatorView.setProgressVisible(visibility == View.VISIBLE);
 	}
 	
 	/**
@@ -168,7 +99,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param visibility
 	 */
 	public void setTitileVisibility(int visibility) {
-		mTvTitle.setVisibility(visibility);
+		mIndicatorView.setTitleVisible(visibility == View.VISIBLE);
 	}
 	
 	/**
@@ -176,7 +107,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param text
 	 */
 	public void setTitleText(CharSequence text) {
-		mTvTitle.setText(text);
+		mIndicatorView.setTitleText(text);
 	}
 	
 	/**
@@ -185,7 +116,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @return
 	 */
 	public void setTitleText(int resid) {
-		mTvTitle.setText(resid);
+		mIndicatorView.setTitleText(getResources().getText(resid));
 	}
 	
 	/**
@@ -194,7 +125,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param visibility
 	 */
 	public void setLabelVisibility(int visibility) {
-		mTvLabel.setVisibility(visibility);
+		mIndicatorView.setLabelVisible(visibility == View.VISIBLE);
 	}
 	
 	/**
@@ -202,7 +133,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param text
 	 */
 	public void setLabelText(CharSequence text) {
-		mTvLabel.setText(text);
+		mIndicatorView.setLabelText(text);
 	}
 	
 	/**
@@ -210,18 +141,60 @@ public class PullHeaderView extends LinearLayout {
 	 * @param resid
 	 */
 	public void setLabelText(int resid) {
-		mTvLabel.setText(resid);
+		mIndicatorView.setLabelText(getResources().getText(resid));
 	}
 	
 	/**
 	 * Start animation of arrow image
 	 * @param animation
+	 * @deprecated Use {@link #rotateArrow(float, boolean)} instead.
 	 */
+	@Deprecated
 	public void startArrowAnimation(Animation animation) {
-		mArrowImageView.clearAnimation();
-		if(null != animation) {
-			mArrowImageView.startAnimation(animation);
-		}
+		mIndicatorView.startArrowAnimation(animation);
+	}
+	
+	/**
+	 * Rotate arrow image to the degrees, animated by a property animator when animate is true.
+	 * @param rotation
+	 * @param animate
+	 */
+	public void rotateArrow(float rotation, boolean animate) {
+		mIndicatorView.rotateArrow(rotation, animate);
+	}
+	
+	/**
+	 * Set a renderer to draw the indicator instead of the arrow, progress and text, null to
+	 * draw them again.
+	 * @param renderer
+	 * @see IndicatorRenderer
+	 */
+	public void setRenderer(IndicatorRenderer renderer) {
+		mIndicatorView.setRenderer(renderer);
+	}
+	
+	/**
+	 * Set how far this view was pulled, drawn by the renderer.
+	 * @param fraction 0 is hidden, 1 is fully shown.
+	 */
+	void setPullFraction(float fraction) {
+		mIndicatorView.setPullFraction(fraction);
+	}
+	
+	/**
+	 * Set the state of pull view, drawn by the renderer.
+	 * @param state
+	 */
+	void setPullState(int state) {
+		mIndicatorView.setPullState(state);
+	}
+	
+	/**
+	 * Get the indicator view which paints arrow, progress and text.
+	 * @return
+	 */
+	public PullIndicatorView getIndicatorView() {
+		return mIndicatorView;
 	}
 
 	/**
@@ -230,7 +203,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param time the new refresh time
 	 */
 	public void setRefreshTime(String time) {
-		mTvLabel.setText(time);
+		mIndicatorView.setLabelText(time);
 	}
 
 	/**
@@ -249,9 +222,12 @@ public class PullHeaderView extends LinearLayout {
 	 */
 	public void setVisiableHeight(int height) {
 		if (height < 0) height = 0;
-		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mHeaderView.getLayoutParams();
+		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mIndicatorView.getLayoutParams();
 		lp.height = height;
-		mHeaderView.setLayoutParams(lp);
+		mIndicatorView.setLayoutParams(lp);
+		if(mHeaderViewHeight > 0) {
+			mIndicatorView.setPullFraction((float) height / mHeaderViewHeight);
+		}
 	}
 
 	/**
@@ -260,7 +236,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @return the visiable height
 	 */
 	public int getVisiableHeight() {
-		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams)mHeaderView.getLayoutParams();
+		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mIndicatorView.getLayoutParams();
 		return lp.height;
 	}
 	
@@ -271,7 +247,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @throws 
 	 */
 	public void setTitleTextColor(int color){
-		mTvTitle.setTextColor(color);
+		mIndicatorView.setTitleTextColor(color);
 	}
 	
 	/**
@@ -279,7 +255,7 @@ public class PullHeaderView extends LinearLayout {
 	 * @param color
 	 */
 	public void setLabelTextColor(int color) {
-		mTvLabel.setTextColor(color);
+		mIndicatorView.setLabelTextColor(color);
 	}
 	
 	/**
@@ -289,17 +265,32 @@ public class PullHeaderView extends LinearLayout {
 	 * @throws 
 	 */
 	public void setBackgroundColor(int color){
-		mHeaderView.setBackgroundColor(color);
+		mIndicatorView.setBackgroundColor(color);
 	}
 
 	/**
 	 * 
-	 * Get progress
+	 * Get progress drawable
 	 * @return
 	 * @throws 
 	 */
+	public Drawable getProgressDrawable() {
+		return mIndicatorView.getProgressDrawable();
+	}
+
+	/**
+	 * Get progress
+	 * @return a progress bar which is not shown, the visibility and indeterminate drawable set on it
+	 * are passed to the progress of the indicator.
+	 * @deprecated There is no progress bar since the indicator is drawn in one view,
+	 * use {@link #getProgressDrawable()} and {@link #setHeaderProgressBarDrawable(Drawable)} instead.
+	 */
+	@Deprecated
 	public ProgressBar getProgress() {
-		return mProgress;
+		if(null == mProgressBar) {
+			mProgressBar = new IndicatorProgressBar(getContext(), mIndicatorView);
+		}
+		return mProgressBar;
 	}
 
 	/**
@@ -309,6 +300,6 @@ public class PullHeaderView extends LinearLayout {
 	 * @throws 
 	 */
 	public void setHeaderProgressBarDrawable(Drawable indeterminateDrawable) {
-		mProgress.setIndeterminateDrawable(indeterminateDrawable);
+		mIndicatorView.setProgressDrawable(indeterminateDrawable);
 	}
 }
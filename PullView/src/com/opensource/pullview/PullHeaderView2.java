@@ -21,17 +21,11 @@ import android.content.Context;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.view.Gravity;
-import android.view.View;
-import android.view.animation.Animation;
-import android.view.animation.RotateAnimation;
-import android.widget.FrameLayout;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.TextView;
 
 import com.opensource.pullview.utils.DateUtil;
+import com.opensource.pullview.utils.TraceUtil;
 import com.opensource.pullview.utils.ViewUtil;
 
 /**
@@ -41,9 +35,6 @@ import com.opensource.pullview.utils.ViewUtil;
  */
 public class PullHeaderView2 extends LinearLayout {
 
-	/** The rotate anim duration. */
-	private final int ROTATE_ANIM_DURATION = 180;
-	
 	/** The Constant STATE_NORMAL. */
 	public final static int STATE_NORMAL = 0;
 	
@@ -53,30 +44,15 @@ public class PullHeaderView2 extends LinearLayout {
 	/** The Constant STATE_REFRESHING. */
 	public final static int STATE_REFRESHING = 2;
 	
-	/** The header view. */
-	private LinearLayout mHeaderView;
-	
-	/** The arrow image view. */
-	private ImageView mArrowImageView;
-	
-	/** The header progress bar. */
-	private ProgressBar mHeaderProgress;
-	
-	/** The tips textview. */
-	private TextView mTipsTextview;
+	/** The indicator view, paints arrow, progress, tips and time. */
+	private PullIndicatorView mIndicatorView;
 	
-	/** The header time view. */
-	private TextView mTimeTextView;
+	/** The progress bar returned by the deprecated getter, created when it is got. */
+	private IndicatorProgressBar mProgressBar;
 	
 	/** The m state. */
 	private int mState = -1;
 
-	/** The m rotate up anim. */
-	private Animation mRotateUpAnim;
-	
-	/** The m rotate down anim. */
-	private Animation mRotateDownAnim;
-	
 	/** Last refresh time. */
 	private String mLastRefreshTime = null;
 	
@@ -110,78 +86,15 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @param context the context
 	 */
 	private void initView(Context context) {
-		
-		mHeaderView = new LinearLayout(context);
-		mHeaderView.setOrientation(LinearLayout.HORIZONTAL);
-		//setBackgroundColor(Color.rgb(225, 225,225));
-		mHeaderView.setGravity(Gravity.CENTER_HORIZONTAL|Gravity.BOTTOM); 
-		mHeaderView.setPadding(0, 5, 0, 5);
-		
-		FrameLayout headImage =  new FrameLayout(context);
-		mArrowImageView = new ImageView(context);
-		mArrowImageView.setImageResource(R.drawable.pullview_down_arrow);
-		
-		//style="?android:attr/progressBarStyleSmall" default style
-		mHeaderProgress = new ProgressBar(context,null,android.R.attr.progressBarStyle);
-		mHeaderProgress.setVisibility(View.GONE);
-		
-		//Arrow icon and progress
-		LinearLayout.LayoutParams iconLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		iconLp.gravity = Gravity.CENTER;
-		iconLp.width = 50;
-		iconLp.height = 50;
-		headImage.addView(mArrowImageView,iconLp);
-		headImage.addView(mHeaderProgress,iconLp);
-		
-		//Header text
-		LinearLayout headTextLayout  = new LinearLayout(context);
-		mTipsTextview = new TextView(context);
-		mTimeTextView = new TextView(context);
-		headTextLayout.setOrientation(LinearLayout.VERTICAL);
-		headTextLayout.setGravity(Gravity.BOTTOM|Gravity.LEFT);
-		headTextLayout.setPadding(12,0,0,0);
-		LinearLayout.LayoutParams tipLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		headTextLayout.addView(mTipsTextview,tipLp);
-		headTextLayout.addView(mTimeTextView,tipLp);
-		mTipsTextview.setTextColor(Color.rgb(107, 107, 107));
-		mTimeTextView.setTextColor(Color.rgb(107, 107, 107));
-		mTipsTextview.setTextSize(15);
-		mTimeTextView.setTextSize(14);
-		
-		LinearLayout.LayoutParams contentLp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-		contentLp.gravity = Gravity.BOTTOM|Gravity.CENTER_HORIZONTAL;
-		contentLp.bottomMargin = 5;
-		contentLp.topMargin = 5;
-		
-		LinearLayout headerLayout = new LinearLayout(context);
-		headerLayout.setOrientation(LinearLayout.HORIZONTAL);
-		headerLayout.setGravity(Gravity.CENTER_HORIZONTAL|Gravity.BOTTOM); 
-		
-		headerLayout.addView(headImage,contentLp);
-		headerLayout.addView(headTextLayout,contentLp);
-		
+		mIndicatorView = new PullIndicatorView(context, true);
+		setTextColor(Color.rgb(107, 107, 107));
 		LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
-		lp.gravity = Gravity.BOTTOM|Gravity.CENTER_HORIZONTAL;
-		
-		mHeaderView.addView(headerLayout,lp);
-		
-		this.addView(mHeaderView,lp);
+		this.addView(mIndicatorView, lp);
 		//Get height of this header view.
 		ViewUtil.measureView(this);
 		mHeaderViewHeight = this.getMeasuredHeight();
 		//Hide this header view.
-		mHeaderView.setPadding(0, -1 * mHeaderViewHeight, 0, 0);
-		
-		mRotateUpAnim = new RotateAnimation(0.0f, -180.0f,
-				Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF,
-				0.5f);
-		mRotateUpAnim.setDuration(ROTATE_ANIM_DURATION);
-		mRotateUpAnim.setFillAfter(true);
-		mRotateDownAnim = new RotateAnimation(-180.0f, 0.0f,
-				Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF,
-				0.5f);
-		mRotateDownAnim.setDuration(ROTATE_ANIM_DURATION);
-		mRotateDownAnim.setFillAfter(true);
+		setPadding(0, -1 * mHeaderViewHeight, 0, 0);
 		
 		setState(STATE_NORMAL);
 	}
@@ -193,52 +106,53 @@ public class PullHeaderView2 extends LinearLayout {
 	 */
 	public void setState(int state) {
 		if (state == mState) return ;
+		final boolean traced = TraceUtil.beginSection(TraceUtil.UPDATE_HEADER);
 		
 		if (state == STATE_REFRESHING) {	
-			mArrowImageView.clearAnimation();
-			mArrowImageView.setVisibility(View.INVISIBLE);
-			mHeaderProgress.setVisibility(View.VISIBLE);
+			mIndicatorView.rotateArrow(0, false);
+			mIndicatorView.setArrowVisible(false);
+			mIndicatorView.setProgressVisible(true);
 		} else {	
-			mArrowImageView.setVisibility(View.VISIBLE);
-			mHeaderProgress.setVisibility(View.INVISIBLE);
+			mIndicatorView.setArrowVisible(true);
+			mIndicatorView.setProgressVisible(false);
 		}
 		
 		switch(state){
 			case STATE_NORMAL:
 				if (mState == STATE_READY) {
-					mArrowImageView.startAnimation(mRotateDownAnim);
+					mIndicatorView.rotateArrow(0, true);
 				}
 				if (mState == STATE_REFRESHING) {
-					mArrowImageView.clearAnimation();
+					mIndicatorView.rotateArrow(0, false);
 				}
-				mTipsTextview.setText(R.string.pull_view_pull_to_refresh);
+				mIndicatorView.setTitleText(getResources().getText(R.string.pull_view_pull_to_refresh));
 				
 				if(mLastRefreshTime==null){
 					mLastRefreshTime = DateUtil.getSystemDate("yyyy-MM-dd HH:mm:ss");
-					mTimeTextView.setText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+					mIndicatorView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
 				}else{
-					mTimeTextView.setText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+					mIndicatorView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
 				}
 				
 				break;
 			case STATE_READY:
 				if (mState != STATE_READY) {
-					mArrowImageView.clearAnimation();
-					mArrowImageView.startAnimation(mRotateUpAnim);
-					mTipsTextview.setText(R.string.pull_view_release_to_refresh);
-					mTimeTextView.setText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+					mIndicatorView.rotateArrow(-180, true);
+					mIndicatorView.setTitleText(getResources().getText(R.string.pull_view_release_to_refresh));
+					mIndicatorView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
 					mLastRefreshTime = DateUtil.getSystemDate("yyyy-MM-dd HH:mm:ss");
 					
 				}
 				break;
 			case STATE_REFRESHING:
-				mTipsTextview.setText(R.string.pull_view_refreshing);
-				mTimeTextView.setText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+				mIndicatorView.setTitleText(getResources().getText(R.string.pull_view_refreshing));
+				mIndicatorView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
 				break;
 				default:
 			}
 		
 		mState = state;
+		TraceUtil.endSection(traced);
 	}
 	
 	/**
@@ -248,9 +162,9 @@ public class PullHeaderView2 extends LinearLayout {
 	 */
 	public void setVisiableHeight(int height) {
 		if (height < 0) height = 0;
-		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mHeaderView.getLayoutParams();
+		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mIndicatorView.getLayoutParams();
 		lp.height = height;
-		mHeaderView.setLayoutParams(lp);
+		mIndicatorView.setLayoutParams(lp);
 	}
 
 	/**
@@ -259,7 +173,7 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @return the visiable height
 	 */
 	public int getVisiableHeight() {
-		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams)mHeaderView.getLayoutParams();
+		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) mIndicatorView.getLayoutParams();
 		return lp.height;
 	}
 
@@ -268,8 +182,8 @@ public class PullHeaderView2 extends LinearLayout {
 	 *
 	 * @return the header view
 	 */
-	public LinearLayout getHeaderView() {
-		return mHeaderView;
+	public PullIndicatorView getHeaderView() {
+		return mIndicatorView;
 	}
 	
 	/**
@@ -278,7 +192,7 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @param time the new refresh time
 	 */
 	public void setRefreshTime(String time) {
-		mTimeTextView.setText(time);
+		mIndicatorView.setLabelText(time);
 	}
 
 	/**
@@ -297,8 +211,8 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @throws 
 	 */
 	public void setTextColor(int color){
-		mTipsTextview.setTextColor(color);
-		mTimeTextView.setTextColor(color);
+		mIndicatorView.setTitleTextColor(color);
+		mIndicatorView.setLabelTextColor(color);
 	}
 	
 	/**
@@ -308,17 +222,32 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @throws 
 	 */
 	public void setBackgroundColor(int color){
-		mHeaderView.setBackgroundColor(color);
+		mIndicatorView.setBackgroundColor(color);
 	}
 
 	/**
 	 * 
-	 * Get progress
+	 * Get progress drawable
 	 * @return
 	 * @throws 
 	 */
+	public Drawable getHeaderProgressDrawable() {
+		return mIndicatorView.getProgressDrawable();
+	}
+
+	/**
+	 * Get progress
+	 * @return a progress bar which is not shown, the visibility and indeterminate drawable set on it
+	 * are passed to the progress of the indicator.
+	 * @deprecated There is no progress bar since the indicator is drawn in one view,
+	 * use {@link #getHeaderProgressDrawable()} and {@link #setHeaderProgressBarDrawable(Drawable)} instead.
+	 */
+	@Deprecated
 	public ProgressBar getHeaderProgress() {
-		return mHeaderProgress;
+		if(null == mProgressBar) {
+			mProgressBar = new IndicatorProgressBar(getContext(), mIndicatorView);
+		}
+		return mProgressBar;
 	}
 
 	/**
@@ -328,6 +257,6 @@ public class PullHeaderView2 extends LinearLayout {
 	 * @throws 
 	 */
 	public void setHeaderProgressBarDrawable(Drawable indeterminateDrawable) {
-		mHeaderProgress.setIndeterminateDrawable(indeterminateDrawable);
+		mIndicatorView.setProgressDrawable(indeterminateDrawable);
 	}
 }
@@ -0,0 +1,729 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.animation.Animation;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.Transformation;
+
+import com.opensource.pullview.utils.TraceUtil;
+import com.opensource.pullview.utils.ViewUtil;
+
+/**
+ * Usage The indicator of header view and footer view.<br>
+ * <p>Paints the arrow, the progress, the title and the label itself, so a state
+ * change of the pull view only costs one invalidate of this view. The height of this
+ * view is fixed when it was created, and text changes never request a new layout.
+ * Animations and invalidations are paused while it is fully hidden by the clip of parents,
+ * as idle headers and footers are hidden by padding or height, not by visibility.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class PullIndicatorView extends View {
+
+	/** The size of arrow and progress icon in dip. */
+	private static final int ICON_SIZE_DIP = 32;
+
+	/** The space between icon and text in dip. */
+	private static final int ICON_TEXT_SPACE_DIP = 8;
+
+	/** The vertical padding in dip. */
+	private static final int VERTICAL_PADDING_DIP = 6;
+
+	/** The duration of one turn of a level based progress drawable. */
+	private static final int PROGRESS_DURATION = 3500;
+
+	/** The max level of drawable. */
+	private static final int MAX_LEVEL = 10000;
+
+	/** The arrow drawable. */
+	private Drawable mArrowDrawable;
+
+	/** The progress drawable. */
+	private Drawable mProgressDrawable;
+
+	/** The title paint. */
+	private TextPaint mTitlePaint;
+
+	/** The label paint. */
+	private TextPaint mLabelPaint;
+
+	/** The title text. */
+	private String mTitle = "";
+
+	/** The label text. */
+	private String mLabel = "";
+
+	/** The counters of the pull view which owns it, null if not counting. */
+	private PullViewCounters mCounters;
+	
+	private PullFrameMetrics mFrameMetrics;
+
+	/** The cached width of title text. */
+	private float mTitleWidth;
+
+	/** The cached width of label text. */
+	private float mLabelWidth;
+
+	/** The cached line height of title text. */
+	private int mTitleHeight;
+
+	/** The cached line height of label text. */
+	private int mLabelHeight;
+
+	private boolean mArrowVisible = true;
+	private boolean mProgressVisible = false;
+	private boolean mTitleVisible = true;
+	private boolean mLabelVisible = true;
+
+	/** Whether the label line is part of this indicator. */
+	private boolean mHasLabel;
+
+	/** The arrow animation. */
+	private Animation mArrowAnimation;
+	private Transformation mArrowTransformation = new Transformation();
+
+	/** The rotation degrees of arrow. */
+	private float mArrowRotation = 0f;
+
+	/** The property animator of arrow rotation, created when used first time. */
+	private ArrowAnimator mArrowAnimator;
+
+	private int mIconSize;
+	private int mIconTextSpace;
+	private int mVerticalPadding;
+
+	/** The fixed height of indicator content. */
+	private int mIndicatorHeight;
+
+	/** The renderer which draws this indicator instead of the default painting, null if not set. */
+	private IndicatorRenderer mRenderer;
+
+	/** How far the header or footer was pulled, 1 is fully shown. */
+	private float mPullFraction = 0f;
+
+	/** The state of pull view. */
+	private int mPullState = IPullView.IDEL;
+
+	/** Whether this view is fully hidden by the clip of parents or visibility. */
+	private boolean mClipped = false;
+
+	private final Rect mVisibleRect = new Rect();
+
+	/** Tracks the clip before every draw of window. */
+	private final ViewTreeObserver.OnPreDrawListener mClipListener = new ViewTreeObserver.OnPreDrawListener() {
+
+		@Override
+		public boolean onPreDraw() {
+			updateClipped();
+			return true;
+		}
+	};
+
+	/**
+	 * Constructor
+	 *
+	 * @param context the context
+	 * @param hasLabel whether to reserve a line for the label text.
+	 */
+	public PullIndicatorView(Context context, boolean hasLabel) {
+		super(context);
+		initView(context, hasLabel);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param context the context
+	 * @param attrs the attrs
+	 */
+	public PullIndicatorView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		initView(context, true);
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		int width;
+		if(MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+			width = getContentWidth();
+		} else {
+			width = MeasureSpec.getSize(widthMeasureSpec);
+		}
+		setMeasuredDimension(width, resolveSize(mIndicatorHeight, heightMeasureSpec));
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		final boolean traced = TraceUtil.beginSection(TraceUtil.DRAW_INDICATOR);
+		if(null != mCounters) {
+			mCounters.mIndicatorDraws++;
+		}
+		if(null != mRenderer) {
+			final int saveCount = canvas.save();
+			canvas.translate(0, (getHeight() - mIndicatorHeight) / 2);
+			final boolean animating = mRenderer.draw(canvas, getWidth(), mIndicatorHeight, mPullFraction, mPullState);
+			canvas.restoreToCount(saveCount);
+			if(animating && !mClipped) {
+				ViewCompat.postInvalidateOnAnimation(this);
+				stepLoadingFrame();
+			}
+			TraceUtil.endSection(traced);
+			return;
+		}
+		final int contentWidth = getContentWidth();
+		final int left = (getWidth() - contentWidth) / 2;
+		final int top = (getHeight() - mIndicatorHeight) / 2 + mVerticalPadding;
+		final int contentHeight = mIndicatorHeight - mVerticalPadding * 2;
+		final int iconTop = top + (contentHeight - mIconSize) / 2;
+
+		if(mArrowVisible && null != mArrowDrawable) {
+			drawArrow(canvas, left, iconTop);
+		}
+		if(mProgressVisible && null != mProgressDrawable) {
+			drawProgress(canvas, left, iconTop);
+			stepLoadingFrame();
+		}
+
+		final float textLeft = isIconVisible() ? left + mIconSize + mIconTextSpace : left;
+		int textHeight = 0;
+		if(mTitleVisible) {
+			textHeight += mTitleHeight;
+		}
+		if(mHasLabel && mLabelVisible) {
+			textHeight += mLabelHeight;
+		}
+		float baseline = top + (contentHeight - textHeight) / 2;
+		if(mTitleVisible) {
+			baseline -= mTitlePaint.ascent();
+			canvas.drawText(mTitle, textLeft, baseline, mTitlePaint);
+			baseline += mTitlePaint.descent();
+		}
+		if(mHasLabel && mLabelVisible) {
+			baseline -= mLabelPaint.ascent();
+			canvas.drawText(mLabel, textLeft, baseline, mLabelPaint);
+		}
+		TraceUtil.endSection(traced);
+	}
+
+	@Override
+	protected boolean verifyDrawable(Drawable who) {
+		return who == mArrowDrawable || who == mProgressDrawable || super.verifyDrawable(who);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		getViewTreeObserver().addOnPreDrawListener(mClipListener);
+		mClipped = false;
+		updateProgressAnimation();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		getViewTreeObserver().removeOnPreDrawListener(mClipListener);
+		if(mProgressDrawable instanceof Animatable) {
+			((Animatable) mProgressDrawable).stop();
+		}
+		if(null != mArrowAnimator) {
+			mArrowAnimator.end();
+		}
+		super.onDetachedFromWindow();
+	}
+
+	/**
+	 * Check whether this view is fully hidden, by the clip of parents(negative padding of
+	 * header and footer, zero height of scroll view header...) or by visibility.
+	 * Animations and invalidations are paused while it is hidden.
+	 */
+	private void updateClipped() {
+		final boolean clipped = !isShown() || !getLocalVisibleRect(mVisibleRect);
+		if(clipped == mClipped) {
+			return;
+		}
+		mClipped = clipped;
+		if(clipped) {
+			if(null != mArrowAnimator) {
+				mArrowAnimator.end();
+			}
+			if(null != mFrameMetrics && mProgressVisible) {
+				mFrameMetrics.onLoadingPaused();
+			}
+			updateProgressAnimation();
+		} else {
+			updateProgressAnimation();
+			invalidate();
+		}
+	}
+
+	/**
+	 * Invalidate this view if it is not fully hidden, it is invalidated when shown again.
+	 */
+	private void invalidateShown() {
+		if(!mClipped) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Get the fixed height of this indicator.
+	 * @return
+	 */
+	public int getIndicatorHeight() {
+		return mIndicatorHeight;
+	}
+
+	/**
+	 * Set a renderer to draw this indicator instead of the arrow, progress and text, null to
+	 * draw them again.
+	 * @param renderer
+	 */
+	public void setRenderer(IndicatorRenderer renderer) {
+		if(mRenderer != renderer) {
+			mRenderer = renderer;
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Get the renderer of this indicator.
+	 * @return the renderer, or null if not set.
+	 */
+	public IndicatorRenderer getRenderer() {
+		return mRenderer;
+	}
+
+	/**
+	 * Set how far the header or footer was pulled, only drawn by a renderer.
+	 * @param fraction 0 is hidden, 1 is fully shown.
+	 */
+	void setPullFraction(float fraction) {
+		if(mPullFraction != fraction) {
+			mPullFraction = fraction;
+			if(null != mRenderer) {
+				invalidateShown();
+			}
+		}
+	}
+
+	/**
+	 * Set the state of pull view, only drawn by a renderer.
+	 * @param state
+	 */
+	void setPullState(int state) {
+		if(mPullState != state) {
+			mPullState = state;
+			if(null != mRenderer) {
+				invalidateShown();
+			}
+		}
+	}
+
+	/**
+	 * Set arrow visibility
+	 * @param visible
+	 */
+	public void setArrowVisible(boolean visible) {
+		if(mArrowVisible != visible) {
+			mArrowVisible = visible;
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set progress visibility
+	 * @param visible
+	 */
+	public void setProgressVisible(boolean visible) {
+		if(mProgressVisible != visible) {
+			mProgressVisible = visible;
+			updateProgressAnimation();
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set title visibility
+	 * @param visible
+	 */
+	public void setTitleVisible(boolean visible) {
+		if(mTitleVisible != visible) {
+			mTitleVisible = visible;
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set label visibility
+	 * @param visible
+	 */
+	public void setLabelVisible(boolean visible) {
+		if(mLabelVisible != visible) {
+			mLabelVisible = visible;
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set title text
+	 * @param text
+	 */
+	public void setTitleText(CharSequence text) {
+		String title = null == text ? "" : text.toString();
+		if(!title.equals(mTitle)) {
+			mTitle = title;
+			mTitleWidth = mTitlePaint.measureText(mTitle);
+			if(null != mCounters) {
+				mCounters.mIndicatorTextUpdates++;
+			}
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set label text
+	 * @param text
+	 */
+	public void setLabelText(CharSequence text) {
+		String label = null == text ? "" : text.toString();
+		if(!label.equals(mLabel)) {
+			mLabel = label;
+			mLabelWidth = mLabelPaint.measureText(mLabel);
+			if(null != mCounters) {
+				mCounters.mIndicatorTextUpdates++;
+			}
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Set the counters of the pull view which owns it, null to stop counting.
+	 * @param counters
+	 */
+	void setCounters(PullViewCounters counters) {
+		this.mCounters = counters;
+	}
+
+	/**
+	 * Set the frame metrics of the pull view which owns it, the draws of spinning progress 
+	 * are the frames of loading. 
+	 * @param metrics
+	 */
+	void setFrameMetrics(PullFrameMetrics metrics) {
+		this.mFrameMetrics = metrics;
+	}
+	
+	/**
+	 * The progress was drawn and it redraws in next frame, step a loading frame.
+	 */
+	private void stepLoadingFrame() {
+		if(null != mFrameMetrics) {
+			mFrameMetrics.onLoadingFrame();
+		}
+	}
+
+	/**
+	 * Set title text color
+	 * @param color
+	 */
+	public void setTitleTextColor(int color) {
+		mTitlePaint.setColor(color);
+		invalidateShown();
+	}
+
+	/**
+	 * Set label text color
+	 * @param color
+	 */
+	public void setLabelTextColor(int color) {
+		mLabelPaint.setColor(color);
+		invalidateShown();
+	}
+
+	/**
+	 * Set arrow drawable
+	 * @param drawable
+	 */
+	public void setArrowDrawable(Drawable drawable) {
+		if(null != mArrowDrawable) {
+			mArrowDrawable.setCallback(null);
+		}
+		mArrowDrawable = drawable;
+		if(null != drawable) {
+			drawable.setBounds(0, 0, mIconSize, mIconSize);
+			drawable.setCallback(this);
+		}
+		invalidateShown();
+	}
+
+	/**
+	 * Set progress drawable
+	 * @param drawable
+	 */
+	public void setProgressDrawable(Drawable drawable) {
+		if(null != mProgressDrawable) {
+			if(mProgressDrawable instanceof Animatable) {
+				((Animatable) mProgressDrawable).stop();
+			}
+			mProgressDrawable.setCallback(null);
+		}
+		mProgressDrawable = drawable;
+		if(null != drawable) {
+			drawable.setBounds(0, 0, mIconSize, mIconSize);
+			drawable.setCallback(this);
+		}
+		updateProgressAnimation();
+		invalidateShown();
+	}
+
+	/**
+	 * Get progress drawable
+	 * @return
+	 */
+	public Drawable getProgressDrawable() {
+		return mProgressDrawable;
+	}
+
+	/**
+	 * Set rotation degrees of arrow.
+	 * @param rotation
+	 */
+	public void setArrowRotation(float rotation) {
+		if(mArrowRotation != rotation) {
+			mArrowRotation = rotation;
+			invalidateShown();
+		}
+	}
+
+	/**
+	 * Get rotation degrees of arrow.
+	 * @return
+	 */
+	public float getArrowRotation() {
+		return mArrowRotation;
+	}
+
+	/**
+	 * Rotate arrow to the degrees.<br>
+	 * <p>It is animated by a property animator on Android 3.0 and above when animate is true,
+	 * only this view is invalidated in every frame.
+	 * @param rotation
+	 * @param animate
+	 */
+	public void rotateArrow(float rotation, boolean animate) {
+		if(animate && !mClipped && Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+			if(null == mArrowAnimator) {
+				mArrowAnimator = new ArrowAnimator(this);
+			}
+			mArrowAnimator.animateTo(rotation);
+		} else {
+			if(null != mArrowAnimator) {
+				mArrowAnimator.cancel();
+			}
+			setArrowRotation(rotation);
+		}
+	}
+
+	/**
+	 * Start animation of arrow, null to clear the arrow animation.
+	 * @param animation
+	 */
+	public void startArrowAnimation(Animation animation) {
+		mArrowAnimation = animation;
+		if(null != animation) {
+			animation.reset();
+			animation.setStartTime(Animation.START_ON_FIRST_FRAME);
+			animation.initialize(mIconSize, mIconSize, getWidth(), getHeight());
+		}
+		invalidateShown();
+	}
+
+	/**
+	 * Inits the view.
+	 * @param context
+	 * @param hasLabel
+	 */
+	private void initView(Context context, boolean hasLabel) {
+		mHasLabel = hasLabel;
+		mIconSize = ViewUtil.dipToPx(context, ICON_SIZE_DIP);
+		mIconTextSpace = ViewUtil.dipToPx(context, ICON_TEXT_SPACE_DIP);
+		mVerticalPadding = ViewUtil.dipToPx(context, VERTICAL_PADDING_DIP);
+
+		mTitlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+		mTitlePaint.setColor(Color.argb(255, 50, 50, 50));
+		mTitlePaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 16,
+				getResources().getDisplayMetrics()));
+		mLabelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+		mLabelPaint.setColor(Color.argb(255, 255, 110, 0));
+		mLabelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14,
+				getResources().getDisplayMetrics()));
+		mTitleHeight = (int) Math.ceil(mTitlePaint.descent() - mTitlePaint.ascent());
+		mLabelHeight = (int) Math.ceil(mLabelPaint.descent() - mLabelPaint.ascent());
+
+		int textHeight = mHasLabel ? mTitleHeight + mLabelHeight : mTitleHeight;
+		mIndicatorHeight = Math.max(mIconSize, textHeight) + mVerticalPadding * 2;
+
+		//Canvas drawn, they share one state with all other indicators.
+		setArrowDrawable(new ArrowDrawable());
+		setProgressDrawable(new SpinnerDrawable());
+	}
+
+	/**
+	 * Get the width of content(icon and text)
+	 * @return
+	 */
+	private int getContentWidth() {
+		float textWidth = 0;
+		if(mTitleVisible) {
+			textWidth = mTitleWidth;
+		}
+		if(mHasLabel && mLabelVisible) {
+			textWidth = Math.max(textWidth, mLabelWidth);
+		}
+		if(!isIconVisible()) {
+			return (int) Math.ceil(textWidth);
+		}
+		if(textWidth == 0) {
+			return mIconSize;
+		}
+		return mIconSize + mIconTextSpace + (int) Math.ceil(textWidth);
+	}
+
+	/**
+	 * Whether arrow or progress is shown.
+	 * @return
+	 */
+	private boolean isIconVisible() {
+		return (mArrowVisible && null != mArrowDrawable) || (mProgressVisible && null != mProgressDrawable);
+	}
+
+	/**
+	 * Draw arrow
+	 * @param canvas
+	 * @param left
+	 * @param top
+	 */
+	private void drawArrow(Canvas canvas, int left, int top) {
+		int saveCount = canvas.save();
+		canvas.translate(left, top);
+		if(mArrowRotation != 0f) {
+			canvas.rotate(mArrowRotation, mIconSize / 2f, mIconSize / 2f);
+		}
+		if(null != mArrowAnimation) {
+			if(mArrowAnimation.getTransformation(getDrawingTime(), mArrowTransformation)) {
+				invalidate();
+			}
+			canvas.concat(mArrowTransformation.getMatrix());
+		}
+		mArrowDrawable.draw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	/**
+	 * Draw progress
+	 * @param canvas
+	 * @param left
+	 * @param top
+	 */
+	private void drawProgress(Canvas canvas, int left, int top) {
+		if(!(mProgressDrawable instanceof Animatable)) {
+			//Drive a level based drawable(rotate drawable) like ProgressBar does.
+			long time = getDrawingTime() % PROGRESS_DURATION;
+			mProgressDrawable.setLevel((int) (MAX_LEVEL * time / PROGRESS_DURATION));
+			if(!mClipped) {
+				ViewCompat.postInvalidateOnAnimation(this);
+			}
+		}
+		int saveCount = canvas.save();
+		canvas.translate(left, top);
+		mProgressDrawable.draw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	/**
+	 * Start or stop an animatable progress drawable.
+	 */
+	private void updateProgressAnimation() {
+		if(!(mProgressDrawable instanceof Animatable)) {
+			return;
+		}
+		Animatable animatable = (Animatable) mProgressDrawable;
+		if(mProgressVisible && !mClipped) {
+			animatable.start();
+		} else {
+			animatable.stop();
+		}
+	}
+
+	/**
+	 * Usage The property animator of arrow rotation, used on Android 3.0 and above only.
+	 *
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	private static class ArrowAnimator implements ValueAnimator.AnimatorUpdateListener {
+
+		private final PullIndicatorView mView;
+
+		private final ValueAnimator mAnimator;
+
+		private ArrowAnimator(PullIndicatorView view) {
+			mView = view;
+			mAnimator = new ValueAnimator();
+			mAnimator.setDuration(IPullView.ROTATE_ANIMATION_DURATION);
+			mAnimator.setInterpolator(new LinearInterpolator());
+			mAnimator.addUpdateListener(this);
+		}
+
+		@Override
+		public void onAnimationUpdate(ValueAnimator animation) {
+			mView.setArrowRotation((Float) animation.getAnimatedValue());
+		}
+
+		private void animateTo(float rotation) {
+			mAnimator.cancel();
+			if(mView.getArrowRotation() == rotation) {
+				return;
+			}
+			mAnimator.setFloatValues(mView.getArrowRotation(), rotation);
+			mAnimator.start();
+		}
+
+		private void cancel() {
+			mAnimator.cancel();
+		}
+
+		private void end() {
+			mAnimator.end();
+		}
+	}
+}
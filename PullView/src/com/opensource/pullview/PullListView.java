@@ -19,17 +19,23 @@ package com.opensource.pullview;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Canvas;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
-import android.view.animation.Animation;
-import android.view.animation.LinearInterpolator;
-import android.view.animation.RotateAnimation;
+import android.view.ViewConfiguration;
 import android.widget.AbsListView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 import android.widget.Toast;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 import com.opensource.pullview.utils.DateUtil;
+import com.opensource.pullview.utils.TraceUtil;
 
 /**
  * Usage A Custom ListView can be pull to refresh and load more<br>
@@ -37,7 +43,10 @@ import com.opensource.pullview.utils.DateUtil;
  * call {@link #setOnRefreshListener(OnRefreshListener)} and {@link #setOnLoadMoreListener(OnLoadMoreListener)}<br><br>
  * 
  * <p>Pull-to-refresh and load-more can not doing at the same time.<br>
- * If pull-to-refresh is happening, you can't do load-more action befor pull-to refresh is finished.<br><br>
+ * If pull-to-refresh is happening, you can't do load-more action befor pull-to refresh is finished.<br>
+ * If load-more is happening, pull-to-refresh cancels it, and the result of it is dropped.<br>
+ * When this view is detached, the refreshing or load-more in flight is abandoned the same way.<br>
+ * While it is detached, its listeners are kept weakly, so keep a reference of them if it will be attached again.<br><br>
  * 
  * <p>You need to call {@link #refreshComplete()} when refresh thread finished,<br>
  * Similarly, You also need to call {@link #loadMoreComplete(boolean)} when load thread finished.<br>
@@ -46,12 +55,21 @@ import com.opensource.pullview.utils.DateUtil;
  */
 public class PullListView extends ListView implements IPullView, AbsListView.OnScrollListener {
 	
+	private static final int OPERATION_NONE = 0;
+	private static final int OPERATION_REFRESH = 1;
+	private static final int OPERATION_LOAD_MORE = 2;
+	
+	private static final int LISTENER_REFRESH = 0;
+	private static final int LISTENER_LOAD_MORE = 1;
+	private static final int LISTENER_LOAD_TIMEOUT = 2;
+	private static final int LISTENER_SCROLL = 3;
+	
 	private PullHeaderView mHeaderView;
 	
 	private PullFooterView mFooterView;
 	
-	private RotateAnimation mDownToUpAnimation;
-	private RotateAnimation mUpToDownAnimation;
+	private SettleAnimator mHeaderSettle;
+	private SettleAnimator mFooterSettle;
 	
 	//Make sure param mStartY only valued once in one touch event.
 	private boolean mIsRecored;
@@ -65,6 +83,7 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	private int mFirstItemIndex;
 	private int mLastItemIndex;
 	private int mTotalItemCount;
+	private int mScrollState = SCROLL_STATE_IDLE;
 	
 	/** Whether it can refresh. */
 	private boolean mRefreshable = false;
@@ -77,10 +96,94 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	private int mHeaderLebelVisiblity = View.VISIBLE;
 	
 	private LoadMode mLoadMode = LoadMode.AUTO_LOAD;
+	
+	private PullResistance mResistance = PullResistance.getDefault();
+	
+	private VelocityTracker mVelocityTracker;
+	private int mMaxFlingVelocity;
+	private int mFlingToLoadVelocity;
+	/** The distance a pull down must go before it cancels loading more, so a jitter does not. */
+	private int mTouchSlop;
+	/** The finger velocity of last release, the next settle starts from it. */
+	private float mReleaseVelocity;
+
+	private IdleTaskExecutor mIdleExecutor;
+	
+	private TieredBindAdapter mTieredAdapter;
+	
+	private PullFrameMetrics mFrameMetrics;
+	
+	private PullViewCounters mCounters;
+	
+	private GestureTrace.Recorder mGestureRecorder;
+	
+	private DebugOverlay mDebugOverlay;
+	
+	private final PullLoadMetrics mLoadMetrics = new PullLoadMetrics();
+
+	/** The operation which is loading now, set when the listener is called. */
+	private int mLoadingOperation = OPERATION_NONE;
+	/** The token of the last operation. */
+	private int mLoadToken = 0;
+	private long mRefreshTimeout = 0;
+	private long mLoadMoreTimeout = 0;
+	/** Whether the last refreshing timed out or was cancelled, its late completion is ignored. */
+	private boolean mRefreshAbandoned = false;
+	/** Whether the last loading more timed out or was cancelled, its late completion is ignored. */
+	private boolean mLoadMoreAbandoned = false;
+	private final Runnable mLoadTimeoutRunnable = new Runnable() {
+		
+		@Override
+		public void run() {
+			onLoadTimeout();
+		}
+	};
+
+	/** Refreshing requested by {@link #requestRefresh()}, run by {@link RefreshScheduler}. */
+	private final Runnable mScheduledRefresh = new Runnable() {
+		
+		@Override
+		public void run() {
+			if(mState == LOADING || !mRefreshable) {
+				RefreshScheduler.getInstance().finished(this);
+				return;
+			}
+			mState = LOADING;
+			updateHeaderViewByState();
+			setSelection(0);
+			refresh();
+		}
+	};
+	/** Loading more requested by {@link #requestLoadMore()}, run by {@link RefreshScheduler}. */
+	private final Runnable mScheduledLoadMore = new Runnable() {
+		
+		@Override
+		public void run() {
+			if(mState == LOADING || !mLoadMoreable) {
+				RefreshScheduler.getInstance().finished(this);
+				return;
+			}
+			mState = LOADING;
+			updateFooterViewByState();
+			setSelection(mTotalItemCount);
+			loadMore();
+		}
+	};
+
+	private Executor mLoadExecutor = PullLoader.getDefaultExecutor();
 
 	private OnRefreshListener mRefreshListener;
+	/** The refresh listener if it runs a background listener, null if not. */
+	private BackgroundRefresh<?> mBackgroundRefresh;
+	/** Whether to start the background refresh when the header reaches the release threshold. */
+	private boolean mSpeculativeRefresh = false;
+	/** The background loading of the load more listener, null if not loading. */
+	private Future<Void> mLoadMoreFuture;
 	private OnLoadMoreListener mLoadMoreListener;
+	private OnLoadTimeoutListener mLoadTimeoutListener;
 	private OnScrollListener mScrollListener;
+	/** The listeners kept weakly while this view is detached, null if attached. */
+	private DetachedListeners mDetachedListeners;
 
 	/**
 	 * The mode of load more.<br>
@@ -135,6 +238,21 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 
 	@Override
 	public void onScrollStateChanged(AbsListView view, int scrollState) {
+		if(null != mTieredAdapter) {
+			if(scrollState == SCROLL_STATE_FLING) {
+				mTieredAdapter.setFlinging(true);
+			} else if(mScrollState == SCROLL_STATE_FLING) {
+				mTieredAdapter.setFlinging(false);
+				bindVisibleRowsFull();
+			}
+		}
+		mScrollState = scrollState;
+		if(null != mGestureRecorder) {
+			mGestureRecorder.recordScrollState(scrollState);
+		}
+		if(null != mIdleExecutor) {
+			mIdleExecutor.setIdle(scrollState == SCROLL_STATE_IDLE);
+		}
 		if(scrollState == SCROLL_STATE_IDLE && mLastItemIndex == mTotalItemCount && mState == IDEL) {
 			if(mLoadMoreable) {
 				if(mLoadMode == LoadMode.AUTO_LOAD) {
@@ -145,6 +263,7 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 				}
 			} else {
 				//TODO 不能加载更多
+				mLoadMetrics.onEndOfData();
 				if(mShowNoMoreDataTips) {
 					Toast.makeText(getContext(), getResources().getString(R.string.no_more_data), Toast.LENGTH_SHORT).show();
 				}
@@ -158,171 +277,313 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	@SuppressLint("ClickableViewAccessibility")
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
-		switch (event.getAction()) {
-		case MotionEvent.ACTION_DOWN:
-			mStartY = (int) event.getY();
-			if(!mIsRecored) {
-				if(mRefreshable && mFirstItemIndex == 0) {
-					mIsRecored = true;
-				} else if(mLoadMoreable && mLastItemIndex == mTotalItemCount) {
-					mIsRecored = true;
-				}
+		final boolean traced = TraceUtil.beginSection(TraceUtil.TOUCH);
+		try {
+			if(null != mGestureRecorder) {
+				mGestureRecorder.recordTouch(this, event);
 			}
-			break;
-		case MotionEvent.ACTION_UP:
-			if(mState != LOADING) {
-				if(mRefreshable && mFirstItemIndex == 0) {
-					switch (mState) {
-					case IDEL:
-						//Do nothing.
-						break;
-					case PULL_TO_LOAD:
-						//Pull to refresh.
-						mState = IDEL;
-						updateHeaderViewByState();
-						break;
-					case RELEASE_TO_LOAD:
-						//Release to refresh.
-						mState = LOADING;
-						updateHeaderViewByState();
-						refresh();
-						break;
-					default:
-						break;
-					}
-				} else if(mLoadMode == LoadMode.PULL_TO_LOAD && mLoadMoreable && mLastItemIndex == mTotalItemCount) {
-					switch (mState) {
-					case IDEL:
-						//Do nothing.
-						break;
-					case PULL_TO_LOAD:
-						//Pull to load more data.
-						mState = IDEL;
-						updateFooterViewByState();
-						break;
-					case RELEASE_TO_LOAD:
-						//Release to load more data.
-						mState = LOADING;
-						updateFooterViewByState();
-						loadMore();
-						break;
-					default:
-						break;
+			if(null == mVelocityTracker) {
+				mVelocityTracker = VelocityTracker.obtain();
+			}
+			mVelocityTracker.addMovement(event);
+			switch (event.getAction()) {
+			case MotionEvent.ACTION_DOWN:
+				mStartY = (int) event.getY();
+				if(!mIsRecored) {
+					if(mRefreshable && mFirstItemIndex == 0) {
+						mIsRecored = true;
+					} else if(mLoadMoreable && mLastItemIndex == mTotalItemCount) {
+						mIsRecored = true;
 					}
 				}
-			} 
-			mIsRecored = false;
-			mIsBack = false;
-			break;
-		case MotionEvent.ACTION_MOVE:
-			int tempY = (int) event.getY();
-			if(mRefreshable && mFirstItemIndex == 0) {
-				if (!mIsRecored) {
-					mIsRecored = true;
-					mStartY = tempY;
-				}
-				if (mState != LOADING && mIsRecored) {
-					// Ensure that the process of setting padding, current position has always been at the header, 
-					// or if when the list exceeds the screen, then, when the push, the list will scroll at the same time
-					switch (mState) {
-					case RELEASE_TO_LOAD: // Release to load data
-						setSelection(0);
-						// Slide up, header part was covered, but not all be covered(Pull up to cancel)
-						if (((tempY - mStartY) / OFFSET_RATIO < mHeaderViewHeight) && (tempY - mStartY) > 0) {
-							mState = PULL_TO_LOAD;
-							updateHeaderViewByState();
-						} else if (tempY - mStartY <= 0) {
-							// Slide to the top
+				break;
+			case MotionEvent.ACTION_UP:
+				mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+				final float velocity = mVelocityTracker.getYVelocity();
+				if(mState != LOADING) {
+					if(mRefreshable && mFirstItemIndex == 0) {
+						mReleaseVelocity = velocity * mResistance.getSlope(mStartY - (int) event.getY());
+						switch (mState) {
+						case IDEL:
+							//Do nothing.
+							break;
+						case PULL_TO_LOAD:
+							if(velocity >= mFlingToLoadVelocity) {
+								//Flung down fast, refresh as released.
+								mState = LOADING;
+								updateHeaderViewByState();
+								refresh();
+								break;
+							}
+							//Pull to refresh.
+							mLoadMetrics.onPullAborted();
 							mState = IDEL;
 							updateHeaderViewByState();
-						}
-						mHeaderView.setPadding(0, -mHeaderViewHeight + (tempY - mStartY) / OFFSET_RATIO, 0, 0);
-						break;
-					case PULL_TO_LOAD:
-						setSelection(0);
-						// Pull down to the state can enter RELEASE_TO_REFRESH
-						if ((tempY - mStartY) / OFFSET_RATIO >= mHeaderViewHeight) {
-							mState = RELEASE_TO_LOAD;
-							mIsBack = true;
-							updateHeaderViewByState();
-						} else if (tempY - mStartY <= 0) {
-							mState = IDEL;
+							break;
+						case RELEASE_TO_LOAD:
+							//Release to refresh.
+							mState = LOADING;
 							updateHeaderViewByState();
-						} else {
-							mHeaderView.setPadding(0, (tempY - mStartY) / OFFSET_RATIO - mHeaderViewHeight, 0, 0);
+							refresh();
+							break;
+						default:
+							break;
 						}
-						break;
-					case IDEL:
-						if (tempY - mStartY > 0) {
-							mState = PULL_TO_LOAD;
-						}
-						updateHeaderViewByState();
-						break;
-					default:
-						break;
-					}
-				}
-			} else if(mLoadMode == LoadMode.PULL_TO_LOAD && mLoadMoreable && mLastItemIndex == mTotalItemCount) {
-				if (!mIsRecored) {
-					mIsRecored = true;
-					mStartY = tempY;
-				}
-				if (mState != LOADING && mIsRecored) {
-					// Ensure that the process of setting padding, current position has always been at the footer, 
-					// or if when the list exceeds the screen, then, when the push up, the list will scroll at the same time
-					switch (mState) {
-					case RELEASE_TO_LOAD: // release-to-load
-						setSelection(mTotalItemCount);
-						// Slide down, header part was covered, but not all be covered(Pull down to cancel)
-						if (((mStartY - tempY) / OFFSET_RATIO < mFooterViewHeight) && (mStartY - tempY) > 0) {
-							mState = PULL_TO_LOAD;
-							updateFooterViewByState();
-						} else if (mStartY - tempY <= 0) { //Slide up(Pull up to make footer to show)
+					} else if(mLoadMode == LoadMode.PULL_TO_LOAD && mLoadMoreable && mLastItemIndex == mTotalItemCount) {
+						mReleaseVelocity = -velocity * mResistance.getSlope(mStartY - (int) event.getY());
+						switch (mState) {
+						case IDEL:
+							//Do nothing.
+							break;
+						case PULL_TO_LOAD:
+							if(-velocity >= mFlingToLoadVelocity) {
+								//Flung up fast, load more as released.
+								mState = LOADING;
+								updateFooterViewByState();
+								loadMore();
+								break;
+							}
+							//Pull to load more data.
+							mLoadMetrics.onPullAborted();
 							mState = IDEL;
 							updateFooterViewByState();
-						} else {
-							mFooterView.setPadding(0, 0, 0, (mStartY - tempY) / OFFSET_RATIO - mFooterViewHeight);
-						}
-						break;
-					case PULL_TO_LOAD:
-						setSelection(mTotalItemCount);
-						// Pull up to the state can enter RELEASE_TO_REFRESH
-						if ((mStartY - tempY) / OFFSET_RATIO >= mFooterViewHeight) {
-							mState = RELEASE_TO_LOAD;
-							mIsBack = true;
-							updateFooterViewByState();
-						} else if (mStartY - tempY <= 0) {
-							mState = IDEL;
+							break;
+						case RELEASE_TO_LOAD:
+							//Release to load more data.
+							mState = LOADING;
 							updateFooterViewByState();
-						} else {
-							mFooterView.setPadding(0, 0, 0, (mStartY - tempY) / OFFSET_RATIO - mFooterViewHeight);
+							loadMore();
+							break;
+						default:
+							break;
+						}
+					}
+				} 
+				mReleaseVelocity = 0;
+				mIsRecored = false;
+				mIsBack = false;
+				recycleVelocityTracker();
+				break;
+			case MotionEvent.ACTION_CANCEL:
+				dropGesture();
+				break;
+			case MotionEvent.ACTION_MOVE:
+				int tempY = (int) event.getY();
+				if(mRefreshable && mFirstItemIndex == 0) {
+					if (!mIsRecored) {
+						mIsRecored = true;
+						mStartY = tempY;
+					}
+					if (mLoadingOperation == OPERATION_LOAD_MORE && mIsRecored && tempY - mStartY > mTouchSlop) {
+						//Pulling to refresh, the data will be replaced, so the page being loaded is not needed.
+						cancelLoadMore();
+					}
+					if (mState != LOADING && mIsRecored) {
+						// Ensure that the process of setting padding, current position has always been at the header, 
+						// or if when the list exceeds the screen, then, when the push, the list will scroll at the same time
+						switch (mState) {
+						case RELEASE_TO_LOAD: // Release to load data
+							setSelection(0);
+							// Slide up, header part was covered, but not all be covered(Pull up to cancel)
+							if ((mResistance.getOffset(tempY - mStartY) < mHeaderViewHeight) && (tempY - mStartY) > 0) {
+								mState = PULL_TO_LOAD;
+								updateHeaderViewByState();
+							} else if (tempY - mStartY <= 0) {
+								// Slide to the top
+								mLoadMetrics.onPullAborted();
+								mState = IDEL;
+								updateHeaderViewByState();
+							}
+							setHeaderPadding(-mHeaderViewHeight + mResistance.getOffset(tempY - mStartY));
+							break;
+						case PULL_TO_LOAD:
+							setSelection(0);
+							// Pull down to the state can enter RELEASE_TO_REFRESH
+							if (mResistance.getOffset(tempY - mStartY) >= mHeaderViewHeight) {
+								mState = RELEASE_TO_LOAD;
+								mIsBack = true;
+								updateHeaderViewByState();
+							} else if (tempY - mStartY <= 0) {
+								mLoadMetrics.onPullAborted();
+								mState = IDEL;
+								updateHeaderViewByState();
+							} else {
+								setHeaderPadding(mResistance.getOffset(tempY - mStartY) - mHeaderViewHeight);
+							}
+							break;
+						case IDEL:
+							if (tempY - mStartY > 0) {
+								mState = PULL_TO_LOAD;
+								mLoadMetrics.onPullStarted();
+							}
+							updateHeaderViewByState();
+							break;
+						default:
+							break;
 						}
-						break;
-					case IDEL:
-						if (mStartY - tempY > 0) {
-							mState = PULL_TO_LOAD;
+					}
+				} else if(mLoadMode == LoadMode.PULL_TO_LOAD && mLoadMoreable && mLastItemIndex == mTotalItemCount) {
+					if (!mIsRecored) {
+						mIsRecored = true;
+						mStartY = tempY;
+					}
+					if (mState != LOADING && mIsRecored) {
+						// Ensure that the process of setting padding, current position has always been at the footer, 
+						// or if when the list exceeds the screen, then, when the push up, the list will scroll at the same time
+						switch (mState) {
+						case RELEASE_TO_LOAD: // release-to-load
+							setSelection(mTotalItemCount);
+							// Slide down, header part was covered, but not all be covered(Pull down to cancel)
+							if ((mResistance.getOffset(mStartY - tempY) < mFooterViewHeight) && (mStartY - tempY) > 0) {
+								mState = PULL_TO_LOAD;
+								updateFooterViewByState();
+							} else if (mStartY - tempY <= 0) { //Slide up(Pull up to make footer to show)
+								mLoadMetrics.onPullAborted();
+								mState = IDEL;
+								updateFooterViewByState();
+							} else {
+								setFooterPadding(mResistance.getOffset(mStartY - tempY) - mFooterViewHeight);
+							}
+							break;
+						case PULL_TO_LOAD:
+							setSelection(mTotalItemCount);
+							// Pull up to the state can enter RELEASE_TO_REFRESH
+							if (mResistance.getOffset(mStartY - tempY) >= mFooterViewHeight) {
+								mState = RELEASE_TO_LOAD;
+								mIsBack = true;
+								updateFooterViewByState();
+							} else if (mStartY - tempY <= 0) {
+								mLoadMetrics.onPullAborted();
+								mState = IDEL;
+								updateFooterViewByState();
+							} else {
+								setFooterPadding(mResistance.getOffset(mStartY - tempY) - mFooterViewHeight);
+							}
+							break;
+						case IDEL:
+							if (mStartY - tempY > 0) {
+								mState = PULL_TO_LOAD;
+								mLoadMetrics.onPullStarted();
+							}
+							updateFooterViewByState();
+							break;
+						default:
+							break;
 						}
-						updateFooterViewByState();
-						break;
-					default:
-						break;
 					}
 				}
+				break;
+			default:
+				break;
 			}
-			break;
-		default:
-			break;
+			updateFramePhase();
+		} finally {
+			TraceUtil.endSection(traced);
 		}
 		return super.onTouchEvent(event);
 	}
 
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		super.dispatchDraw(canvas);
+		if(null != mDebugOverlay) {
+			mDebugOverlay.draw(canvas, mState);
+		}
+	}
+
+	@Override
+	public void requestLayout() {
+		if(null != mCounters) {
+			mCounters.mRequestLayouts++;
+		}
+		super.requestLayout();
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		if(null != mCounters) {
+			mCounters.mMeasures++;
+		}
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		if(null != mCounters) {
+			mCounters.mLayouts++;
+		}
+		super.onLayout(changed, l, t, r, b);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		if(null != mDetachedListeners) {
+			mRefreshListener = mDetachedListeners.take(LISTENER_REFRESH, mRefreshListener);
+			if(null != mBackgroundRefresh && !mBackgroundRefresh.retain()) {
+				mRefreshListener = null;
+				mBackgroundRefresh = null;
+			}
+			mRefreshable = null != mRefreshListener;
+			mLoadMoreListener = mDetachedListeners.take(LISTENER_LOAD_MORE, mLoadMoreListener);
+			mLoadMoreable = null != mLoadMoreListener;
+			mLoadTimeoutListener = mDetachedListeners.take(LISTENER_LOAD_TIMEOUT, mLoadTimeoutListener);
+			mScrollListener = mDetachedListeners.take(LISTENER_SCROLL, mScrollListener);
+			mDetachedListeners = null;
+		}
+		if(null != mIdleExecutor) {
+			mIdleExecutor.setIdle(mScrollState == SCROLL_STATE_IDLE);
+		}
+		updateFramePhase();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		RefreshScheduler.getInstance().remove(mScheduledRefresh);
+		RefreshScheduler.getInstance().remove(mScheduledLoadMore);
+		dropGesture();
+		abandonOperations();
+		//Nothing of this view may stay posted while it is detached, it may never come back.
+		mHeaderSettle.end();
+		mFooterSettle.end();
+		if(null != mFrameMetrics) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_NONE);
+		}
+		if(null != mIdleExecutor) {
+			mIdleExecutor.pause();
+		}
+		//Do not keep the activity through listeners, they are taken back when attached again.
+		mDetachedListeners = new DetachedListeners(mRefreshListener, mLoadMoreListener,
+				mLoadTimeoutListener, mScrollListener);
+		if(null != mBackgroundRefresh) {
+			//The background refresh is of this view, it keeps the listener weakly instead.
+			mBackgroundRefresh.release();
+		} else {
+			mRefreshListener = null;
+		}
+		mLoadMoreListener = null;
+		mLoadTimeoutListener = null;
+		mScrollListener = null;
+		super.onDetachedFromWindow();
+	}
+
 	@Override
 	public void setAdapter(ListAdapter adapter) {
+		if(null != mTieredAdapter && mScrollState == SCROLL_STATE_FLING) {
+			mTieredAdapter.setFlinging(false);
+		}
+		mTieredAdapter = adapter instanceof TieredBindAdapter ? (TieredBindAdapter) adapter : null;
+		if(null != mTieredAdapter && mScrollState == SCROLL_STATE_FLING) {
+			mTieredAdapter.setFlinging(true);
+		}
 		super.setAdapter(adapter);
 	}
 	
 	@Override
 	public void setOnScrollListener(OnScrollListener l) {
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_SCROLL);
+		}
 		this.mScrollListener = l;
 	}
 	
@@ -347,7 +608,14 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * @param listener
 	 */
 	public void setOnRefreshListener(OnRefreshListener listener) {
+		if(null != mBackgroundRefresh && listener != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_REFRESH);
+		}
 		this.mRefreshListener = listener;
+		mBackgroundRefresh = listener instanceof BackgroundRefresh ? (BackgroundRefresh<?>) listener : null;
 		mRefreshable = null != listener;
 	}
 
@@ -356,10 +624,216 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * @param listener
 	 */
 	public void setOnLoadMoreListener(OnLoadMoreListener listener) {
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_LOAD_MORE);
+		}
 		this.mLoadMoreListener = listener;
 		mLoadMoreable = null != listener;
 	}
 	
+	/**
+	 * Set listener to refresh data in background thread, the result is committed in main thread
+	 * and refreshing is completed by this view.<br>
+	 * <p>It replaces the listener set by {@link #setOnRefreshListener(OnRefreshListener)}.
+	 * @param listener
+	 * @see #setLoadExecutor(Executor)
+	 */
+	public <T> void setOnRefreshInBackgroundListener(final OnRefreshInBackgroundListener<T> listener) {
+		if(null == listener) {
+			setOnRefreshListener(null);
+			return;
+		}
+		setOnRefreshListener(new BackgroundRefresh<T>(listener) {
+			
+			@Override
+			Executor getExecutor() {
+				return mLoadExecutor;
+			}
+			
+			@Override
+			int getLoadToken() {
+				return mLoadToken;
+			}
+			
+			@Override
+			boolean isRefreshing(int token) {
+				return isLoading(OPERATION_REFRESH, token);
+			}
+			
+			@Override
+			void complete(int token) {
+				refreshCompleted(token);
+			}
+		});
+	}
+	
+	/**
+	 * Enable or disable speculative refresh, false is default.<br>
+	 * <p>When enabled, the listener set by {@link #setOnRefreshInBackgroundListener(OnRefreshInBackgroundListener)}
+	 * starts loading as soon as the header reaches the release threshold, and the loading is cancelled
+	 * (the background thread is interrupted) if the header is pulled back below it. The refresh
+	 * takes the loading over when released, so the time the finger is held is not waited again.
+	 * It has no effect on the listener set by {@link #setOnRefreshListener(OnRefreshListener)},
+	 * which can not be cancelled.
+	 * @param enabled
+	 */
+	public void setSpeculativeRefreshEnabled(boolean enabled) {
+		this.mSpeculativeRefresh = enabled;
+		if(!enabled && null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+	}
+	
+	/**
+	 * Set listener to load more data in background thread, the result is committed in main thread
+	 * and loading is completed by this view.<br>
+	 * <p>It replaces the listener set by {@link #setOnLoadMoreListener(OnLoadMoreListener)}.
+	 * @param listener
+	 * @see #setLoadExecutor(Executor)
+	 */
+	public <T> void setOnLoadMoreInBackgroundListener(final OnLoadMoreInBackgroundListener<T> listener) {
+		if(null == listener) {
+			setOnLoadMoreListener(null);
+			return;
+		}
+		setOnLoadMoreListener(new OnLoadMoreListener() {
+			
+			@Override
+			public void onLoadMore() {
+				final int token = mLoadToken;
+				mLoadMoreFuture = PullLoader.load(mLoadExecutor, new Callable<T>() {
+					
+					@Override
+					public T call() throws Exception {
+						return listener.onLoadMoreInBackground();
+					}
+				}, new PullLoader.Callback<T>() {
+					
+					@Override
+					public void onLoaded(T result, Exception error) {
+						if(token == mLoadToken) {
+							mLoadMoreFuture = null;
+						}
+						if(!isLoading(OPERATION_LOAD_MORE, token)) {
+							//Timed out or replaced, drop the result.
+							return;
+						}
+						boolean loadMoreable = true;
+						if(null == error) {
+							loadMoreable = listener.onLoadedMore(result);
+						} else {
+							listener.onLoadMoreFailed(error);
+						}
+						loadMoreCompleted(token, loadMoreable);
+					}
+				});
+			}
+		});
+	}
+	
+	/**
+	 * Set the executor to run background listeners.<br>
+	 * <p>{@link PullLoader#getDefaultExecutor()} is default.
+	 * @param executor
+	 */
+	public void setLoadExecutor(Executor executor) {
+		this.mLoadExecutor = null == executor ? PullLoader.getDefaultExecutor() : executor;
+	}
+	
+	/**
+	 * Request to refresh through {@link RefreshScheduler}, it shows the header and calls
+	 * {@link OnRefreshListener#onRefresh()} when the scheduler runs it.<br>
+	 * <p>Use it instead of refreshing by yourself when many pull views refresh at the same time.
+	 */
+	public void requestRefresh() {
+		if(mRefreshable) {
+			RefreshScheduler.getInstance().request(this, mScheduledRefresh);
+		}
+	}
+	
+	/**
+	 * Request to load more through {@link RefreshScheduler}, it shows the footer and calls
+	 * {@link OnLoadMoreListener#onLoadMore()} when the scheduler runs it.
+	 */
+	public void requestLoadMore() {
+		if(mLoadMoreable) {
+			RefreshScheduler.getInstance().request(this, mScheduledLoadMore);
+		}
+	}
+	
+	/**
+	 * Set a renderer to draw the header indicator instead of the arrow, progress and text,
+	 * null to draw them again.
+	 * @param renderer
+	 * @see IndicatorRenderer
+	 */
+	public void setHeaderRenderer(IndicatorRenderer renderer) {
+		mHeaderView.setRenderer(renderer);
+	}
+	
+	/**
+	 * Set a renderer to draw the footer indicator instead of the arrow, progress and text,
+	 * null to draw them again.
+	 * @param renderer
+	 * @see IndicatorRenderer
+	 */
+	public void setFooterRenderer(IndicatorRenderer renderer) {
+		mFooterView.setRenderer(renderer);
+	}
+	
+	/**
+	 * Set a recorder to record the touch events reaching this view, null to stop recording.
+	 * @param recorder
+	 * @see GestureTrace
+	 */
+	public void setGestureRecorder(GestureTrace.Recorder recorder) {
+		this.mGestureRecorder = recorder;
+	}
+	
+	/**
+	 * Set listener to listen refreshing or loading more which was not completed in time.
+	 * @param listener
+	 * @see #setRefreshTimeout(long)
+	 * @see #setLoadMoreTimeout(long)
+	 */
+	public void setOnLoadTimeoutListener(OnLoadTimeoutListener listener) {
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_LOAD_TIMEOUT);
+		}
+		this.mLoadTimeoutListener = listener;
+	}
+	
+	/**
+	 * Set the timeout of refreshing.<br>
+	 * <p>If {@link #refreshCompleted()} was not called in time, this view goes back to idle state,
+	 * tells {@link OnLoadTimeoutListener#onRefreshTimeout()}, and ignores the late completion.
+	 * @param timeout in milliseconds, 0 is no timeout and is default.
+	 */
+	public void setRefreshTimeout(long timeout) {
+		this.mRefreshTimeout = Math.max(0, timeout);
+	}
+	
+	/**
+	 * Set the timeout of loading more.<br>
+	 * <p>If {@link #loadMoreCompleted(boolean)} was not called in time, this view goes back to idle state,
+	 * tells {@link OnLoadTimeoutListener#onLoadMoreTimeout()}, and ignores the late completion.
+	 * @param timeout in milliseconds, 0 is no timeout and is default.
+	 */
+	public void setLoadMoreTimeout(long timeout) {
+		this.mLoadMoreTimeout = Math.max(0, timeout);
+	}
+	
+	/**
+	 * Get the token of the last refreshing or loading more, get it in
+	 * {@link OnRefreshListener#onRefresh()} or {@link OnLoadMoreListener#onLoadMore()}
+	 * and complete with {@link #refreshCompleted(int)} or {@link #loadMoreCompleted(int, boolean)},
+	 * so a completion of an operation which timed out is always ignored.
+	 * @return
+	 */
+	public int getLoadToken() {
+		return mLoadToken;
+	}
+	
 	/**
 	 * Show loading view on header<br>
 	 * <br><p>Use this method when no header view was added on PullListView.
@@ -367,12 +841,12 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onHeadLoading(CharSequence text) {
 		mState = LOADING;
-		mHeaderView.setPadding(0, 0, 0, 0);
+		setHeaderPadding(0);
 		mHeaderView.setArrowVisibility(View.GONE);
 		mHeaderView.setProgressVisibility(View.VISIBLE);
 		mHeaderView.setTitileVisibility(View.VISIBLE);
 		mHeaderView.setLabelVisibility(View.GONE);
-		mHeaderView.startArrowAnimation(null);
+		mHeaderView.rotateArrow(0, false);
 		mHeaderView.setTitleText(text);
 	}
 	
@@ -383,12 +857,12 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onHeadLoading(int resId) {
 		mState = LOADING;
-		mHeaderView.setPadding(0, 0, 0, 0);
+		setHeaderPadding(0);
 		mHeaderView.setArrowVisibility(View.GONE);
 		mHeaderView.setProgressVisibility(View.VISIBLE);
 		mHeaderView.setTitileVisibility(View.VISIBLE);
 		mHeaderView.setLabelVisibility(View.GONE);
-		mHeaderView.startArrowAnimation(null);
+		mHeaderView.rotateArrow(0, false);
 		mHeaderView.setTitleText(resId);
 	}
 	
@@ -399,11 +873,11 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onFootLoading(CharSequence text) {
 		mState = LOADING;
-		mFooterView.setPadding(0, 0, 0, 0);
+		setFooterPadding(0);
 		mFooterView.setArrowVisibility(View.GONE);
 		mFooterView.setProgressVisibility(View.VISIBLE);
 		mFooterView.setTitileVisibility(View.VISIBLE);
-		mFooterView.startArrowAnimation(null);
+		mFooterView.rotateArrow(0, false);
 		mFooterView.setTitleText(text);
 	}
 	
@@ -414,11 +888,11 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onFootLoading(int resId) {
 		mState = LOADING;
-		mFooterView.setPadding(0, 0, 0, 0);
+		setFooterPadding(0);
 		mFooterView.setArrowVisibility(View.GONE);
 		mFooterView.setProgressVisibility(View.VISIBLE);
 		mFooterView.setTitileVisibility(View.VISIBLE);
-		mFooterView.startArrowAnimation(null);
+		mFooterView.rotateArrow(0, false);
 		mFooterView.setTitleText(resId);
 	}
 	
@@ -433,12 +907,12 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onFirstLoadingData(CharSequence text) {
 		mState = LOADING;
-		mHeaderView.setPadding(0, 0, 0, 0);
+		setHeaderPadding(0);
 		mHeaderView.setArrowVisibility(View.GONE);
 		mHeaderView.setProgressVisibility(View.VISIBLE);
 		mHeaderView.setTitileVisibility(View.VISIBLE);
 		mHeaderView.setLabelVisibility(View.GONE);
-		mHeaderView.startArrowAnimation(null);
+		mHeaderView.rotateArrow(0, false);
 		mHeaderView.setTitleText(text);
 	}
 	
@@ -453,12 +927,12 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 */
 	public void onFirstLoadingData(int resId) {
 		mState = LOADING;
-		mHeaderView.setPadding(0, 0, 0, 0);
+		setHeaderPadding(0);
 		mHeaderView.setArrowVisibility(View.GONE);
 		mHeaderView.setProgressVisibility(View.VISIBLE);
 		mHeaderView.setTitileVisibility(View.VISIBLE);
 		mHeaderView.setLabelVisibility(View.GONE);
-		mHeaderView.startArrowAnimation(null);
+		mHeaderView.rotateArrow(0, false);
 		mHeaderView.setTitleText(resId);
 	}
 	
@@ -499,6 +973,80 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 		mHeaderView.setLabelVisibility(mHeaderLebelVisiblity);
 	}
 	
+	/**
+	 * Set the resistance of pulling header view and footer view.<br>
+	 * <p>{@link PullResistance#getDefault()} is default.
+	 * @param resistance
+	 */
+	public void setPullResistance(PullResistance resistance) {
+		this.mResistance = null == resistance ? PullResistance.getDefault() : resistance;
+	}
+	
+	/**
+	 * Get the executor which runs tasks when this list is not scrolling.<br>
+	 * <p>Use it for tasks which are not urgent, so they do not make the scrolling frames slow.
+	 * @return
+	 * @see IdleTaskExecutor
+	 */
+	public IdleTaskExecutor getIdleExecutor() {
+		if(null == mIdleExecutor) {
+			mIdleExecutor = new IdleTaskExecutor();
+			mIdleExecutor.setIdle(mScrollState == SCROLL_STATE_IDLE);
+		}
+		return mIdleExecutor;
+	}
+	
+	/**
+	 * Get the frame metrics of pulling, frames are recorded after it was got first time.
+	 * @return
+	 * @see PullFrameMetrics
+	 */
+	public PullFrameMetrics getFrameMetrics() {
+		if(null == mFrameMetrics) {
+			mFrameMetrics = new PullFrameMetrics(this);
+			mHeaderView.getIndicatorView().setFrameMetrics(mFrameMetrics);
+			mFooterView.getIndicatorView().setFrameMetrics(mFrameMetrics);
+			updateFramePhase();
+		}
+		return mFrameMetrics;
+	}
+	
+	/**
+	 * Get the counters of the work this view does, counting starts after it was got first time.
+	 * @return
+	 * @see PullViewCounters
+	 */
+	public PullViewCounters getCounters() {
+		if(null == mCounters) {
+			mCounters = new PullViewCounters();
+			mHeaderView.getIndicatorView().setCounters(mCounters);
+			mFooterView.getIndicatorView().setCounters(mCounters);
+		}
+		return mCounters;
+	}
+	
+	/**
+	 * Enable or disable the debug overlay, it draws the counters of this view on top of it.
+	 * @param enabled
+	 * @see DebugOverlay
+	 */
+	public void setDebugOverlayEnabled(boolean enabled) {
+		if(enabled == (null != mDebugOverlay)) {
+			return;
+		}
+		mDebugOverlay = enabled ? new DebugOverlay(this, getCounters()) : null;
+		invalidate();
+	}
+	
+	/**
+	 * Get the load metrics, how long refreshing and loading more took and how users pulled.
+	 * @return
+	 * @see PullLoadMetrics
+	 */
+	public PullLoadMetrics getLoadMetrics() {
+		return mLoadMetrics;
+	}
+	
 	/**
 	 * Set show tips when there is no more data to load<br>
 	 * Show is default.
@@ -512,18 +1060,69 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * Refresh data complete
 	 */
 	public void refreshCompleted() {
+		if(mLoadingOperation == OPERATION_LOAD_MORE
+				|| (mRefreshAbandoned && mLoadingOperation != OPERATION_REFRESH)) {
+			//Late completion of the refreshing which timed out.
+			mRefreshAbandoned = false;
+			return;
+		}
+		mRefreshAbandoned = false;
+		if(mLoadingOperation == OPERATION_REFRESH) {
+			mLoadingOperation = OPERATION_NONE;
+			removeCallbacks(mLoadTimeoutRunnable);
+		}
+		RefreshScheduler.getInstance().finished(mScheduledRefresh);
+		final boolean traced = TraceUtil.beginSection(TraceUtil.REFRESH_COMPLETED);
+		mLoadMetrics.onRefreshCompleted();
 		mState = IDEL;
 		mLastRefreshTime = DateUtil.getSystemDate(getResources().getString(R.string.pull_view_date_format));
 		updateHeaderViewByState();
+		TraceUtil.endSection(traced);
+	}
+	
+	/**
+	 * Refresh data complete, ignored if the token is not of the refreshing now.
+	 * @param token got by {@link #getLoadToken()} when refreshing started.
+	 */
+	public void refreshCompleted(int token) {
+		if(isLoading(OPERATION_REFRESH, token)) {
+			refreshCompleted();
+		}
 	}
 	
 	/**
 	 * Load more complete
 	 */
 	public void loadMoreCompleted(boolean loadMoreable) {
+		if(mLoadingOperation == OPERATION_REFRESH
+				|| (mLoadMoreAbandoned && mLoadingOperation != OPERATION_LOAD_MORE)) {
+			//Late completion of the loading which timed out or was cancelled by refreshing.
+			mLoadMoreAbandoned = false;
+			return;
+		}
+		mLoadMoreAbandoned = false;
+		if(mLoadingOperation == OPERATION_LOAD_MORE) {
+			mLoadingOperation = OPERATION_NONE;
+			removeCallbacks(mLoadTimeoutRunnable);
+		}
+		RefreshScheduler.getInstance().finished(mScheduledLoadMore);
+		final boolean traced = TraceUtil.beginSection(TraceUtil.LOAD_MORE_COMPLETED);
+		mLoadMetrics.onLoadMoreCompleted();
 		mState = IDEL;
 		updateFooterViewByState();
 		this.mLoadMoreable = loadMoreable;
+		TraceUtil.endSection(traced);
+	}
+	
+	/**
+	 * Load more complete, ignored if the token is not of the loading now.
+	 * @param token got by {@link #getLoadToken()} when loading started.
+	 * @param loadMoreable
+	 */
+	public void loadMoreCompleted(int token, boolean loadMoreable) {
+		if(isLoading(OPERATION_LOAD_MORE, token)) {
+			loadMoreCompleted(loadMoreable);
+		}
 	}
 
 	/**
@@ -531,29 +1130,49 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * @param context
 	 */
 	private void initView(Context context) {
-		mDownToUpAnimation = new RotateAnimation(0, -180, Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF, 0.5f);
-		mDownToUpAnimation.setInterpolator(new LinearInterpolator());
-		mDownToUpAnimation.setDuration(ROTATE_ANIMATION_DURATION);
-		mDownToUpAnimation.setFillAfter(true);
-
-		mUpToDownAnimation = new RotateAnimation(-180, 0, Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF, 0.5f);
-		mUpToDownAnimation.setInterpolator(new LinearInterpolator());
-		mUpToDownAnimation.setDuration(ROTATE_ANIMATION_DURATION);
-		mUpToDownAnimation.setFillAfter(true);
-		
 		mHeaderView = new PullHeaderView(context);
 		mHeaderView.setLabelVisibility(View.VISIBLE);
 		mHeaderViewHeight = mHeaderView.getViewHeight() + getDividerHeight();
-		mHeaderView.setPadding(0, -mHeaderViewHeight, 0, 0);
+		applyHeaderPadding(-mHeaderViewHeight);
 		mHeaderView.invalidate();
 		addHeaderView(mHeaderView, null, false);
 
 		mFooterView = new PullFooterView(context);
 		mFooterViewHeight = mFooterView.getViewHeight() + getDividerHeight();
-		mFooterView.setPadding(0, 0, 0, -mFooterViewHeight);
+		applyFooterPadding(-mFooterViewHeight);
 		mFooterView.invalidate();
 		addFooterView(mFooterView, null, false);
 		
+		mHeaderSettle = new SettleAnimator(this, mHeaderView.getIndicatorView(), new SettleAnimator.Callback() {
+			
+			@Override
+			public void onSettleUpdate(int value) {
+				applyHeaderPadding(value);
+			}
+			
+			@Override
+			public void onSettleEnd() {
+				updateFramePhase();
+			}
+		});
+		mFooterSettle = new SettleAnimator(this, mFooterView.getIndicatorView(), new SettleAnimator.Callback() {
+			
+			@Override
+			public void onSettleUpdate(int value) {
+				applyFooterPadding(value);
+			}
+			
+			@Override
+			public void onSettleEnd() {
+				updateFramePhase();
+			}
+		});
+		
+		final ViewConfiguration configuration = ViewConfiguration.get(context);
+		mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+		mTouchSlop = configuration.getScaledTouchSlop();
+		mFlingToLoadVelocity = (int) (FLING_TO_LOAD_VELOCITY * getResources().getDisplayMetrics().density + 0.5f);
+		
 		mState = IDEL;
 		super.setOnScrollListener(this);
 		
@@ -564,12 +1183,20 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * Update header view by state.
 	 */
 	private void updateHeaderViewByState() {
+		final boolean traced = TraceUtil.beginSection(TraceUtil.UPDATE_HEADER);
+		if(null != mBackgroundRefresh) {
+			if(mState == RELEASE_TO_LOAD && mSpeculativeRefresh) {
+				mBackgroundRefresh.speculate();
+			} else if(mState == PULL_TO_LOAD || mState == IDEL) {
+				mBackgroundRefresh.cancelSpeculation();
+			}
+		}
 		switch (mState) {
 		case RELEASE_TO_LOAD:
 			mHeaderView.setArrowVisibility(View.VISIBLE);
 			mHeaderView.setProgressVisibility(View.GONE);
 			mHeaderView.setTitileVisibility(View.VISIBLE);
-			mHeaderView.startArrowAnimation(mDownToUpAnimation);
+			mHeaderView.rotateArrow(-180, true);
 			mHeaderView.setTitleText(R.string.pull_view_release_to_refresh);
 			mHeaderView.setLabelText(getResources().getString(R.string.pull_view_refresh_time)
 					+ mLastRefreshTime);
@@ -581,7 +1208,7 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 
 			if (mIsBack) {
 				mIsBack = false;
-				mHeaderView.startArrowAnimation(mUpToDownAnimation);
+				mHeaderView.rotateArrow(0, true);
 			}
 			mHeaderView.setTitleText(R.string.pull_view_pull_to_refresh);
 			mHeaderView.setLabelText(getResources().getString(
@@ -589,19 +1216,19 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 					+ mLastRefreshTime);
 			break;
 		case LOADING:
-			mHeaderView.setPadding(0, 0, 0, 0);
+			settleHeaderPadding(0);
 			mHeaderView.setArrowVisibility(View.GONE);
 			mHeaderView.setProgressVisibility(View.VISIBLE);
 			mHeaderView.setTitileVisibility(View.VISIBLE);
-			mHeaderView.startArrowAnimation(null);
+			mHeaderView.rotateArrow(0, false);
 			mHeaderView.setTitleText(R.string.pull_view_refreshing);
 			mHeaderView.setLabelText(getResources().getString(R.string.pull_view_refresh_time)
 					+ mLastRefreshTime);
 			break;
 		case IDEL:
-			mHeaderView.setPadding(0, -mHeaderViewHeight, 0, 0);
+			settleHeaderPadding(-mHeaderViewHeight);
 			mHeaderView.setProgressVisibility(View.GONE);
-			mHeaderView.startArrowAnimation(null);
+			mHeaderView.rotateArrow(0, false);
 			mHeaderView.setTitleText(R.string.pull_view_pull_to_refresh);
 			mHeaderView.setLabelText(getResources().getString(R.string.pull_view_refresh_time)
 					+ mLastRefreshTime);
@@ -610,18 +1237,21 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 			break;
 		}
 		mHeaderView.setLabelVisibility(mHeaderLebelVisiblity);
+		mHeaderView.setPullState(mState);
+		TraceUtil.endSection(traced);
 	}
 	
 	/**
 	 * Update footer view by state
 	 */
 	private void updateFooterViewByState() {
+		final boolean traced = TraceUtil.beginSection(TraceUtil.UPDATE_FOOTER);
 		switch (mState) {
 		case RELEASE_TO_LOAD:
 			mFooterView.setArrowVisibility(View.VISIBLE);
 			mFooterView.setProgressVisibility(View.GONE);
 			mFooterView.setTitileVisibility(View.VISIBLE);
-			mFooterView.startArrowAnimation(mDownToUpAnimation);
+			mFooterView.rotateArrow(-180, true);
 			mFooterView.setTitleText(R.string.pull_view_release_to_load);
 			break;
 		case PULL_TO_LOAD:
@@ -631,35 +1261,299 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 
 			if (mIsBack) {
 				mIsBack = false;
-				mFooterView.startArrowAnimation(mUpToDownAnimation);
+				mFooterView.rotateArrow(0, true);
 			}
 			mFooterView.setTitleText(R.string.pull_view_pull_to_load);
 			break;
 		case LOADING:
-			mFooterView.setPadding(0, 0, 0, 0);
+			settleFooterPadding(0);
 			mFooterView.setArrowVisibility(View.GONE);
 			mFooterView.setProgressVisibility(View.VISIBLE);
 			mFooterView.setTitileVisibility(View.VISIBLE);
-			mFooterView.startArrowAnimation(null);
+			mFooterView.rotateArrow(0, false);
 			mFooterView.setTitleText(R.string.pull_view_loading);
 			break;
 		case IDEL:
-			mFooterView.setPadding(0, 0, 0, -mFooterViewHeight);
+			settleFooterPadding(-mFooterViewHeight);
 			mFooterView.setProgressVisibility(View.GONE);
-			mFooterView.startArrowAnimation(null);
+			mFooterView.rotateArrow(0, false);
 			mFooterView.setTitleText(R.string.pull_view_release_to_load);
 			break;
 		default:
 			break;
 		}
+		mFooterView.setPullState(mState);
+		TraceUtil.endSection(traced);
+	}
+
+	/**
+	 * Set top padding of header view at once, stop settling of it.
+	 * @param top
+	 */
+	private void setHeaderPadding(int top) {
+		mHeaderSettle.cancel();
+		applyHeaderPadding(top);
+		updateFramePhase();
+	}
+	
+	/**
+	 * Set top padding of header view, and the pull fraction of its indicator.
+	 * @param top
+	 */
+	private void applyHeaderPadding(int top) {
+		mHeaderView.setPadding(0, top, 0, 0);
+		if(mHeaderViewHeight > 0) {
+			mHeaderView.setPullFraction(Math.max(0f, (float) (mHeaderViewHeight + top) / mHeaderViewHeight));
+		}
+	}
+	
+	/**
+	 * Settle top padding of header view to the value, from the velocity of last release.
+	 * @param top
+	 */
+	private void settleHeaderPadding(int top) {
+		mHeaderSettle.start(mHeaderView.getPaddingTop(), top, mReleaseVelocity);
+		mReleaseVelocity = 0;
+		updateFramePhase();
+	}
+	
+	/**
+	 * Set bottom padding of footer view at once, stop settling of it.
+	 * @param bottom
+	 */
+	private void setFooterPadding(int bottom) {
+		mFooterSettle.cancel();
+		applyFooterPadding(bottom);
+		updateFramePhase();
+	}
+	
+	/**
+	 * Set bottom padding of footer view, and the pull fraction of its indicator.
+	 * @param bottom
+	 */
+	private void applyFooterPadding(int bottom) {
+		mFooterView.setPadding(0, 0, 0, bottom);
+		if(mFooterViewHeight > 0) {
+			mFooterView.setPullFraction(Math.max(0f, (float) (mFooterViewHeight + bottom) / mFooterViewHeight));
+		}
+	}
+	
+	/**
+	 * Settle bottom padding of footer view to the value, from the velocity of last release.
+	 * @param bottom
+	 */
+	private void settleFooterPadding(int bottom) {
+		mFooterSettle.start(mFooterView.getPaddingBottom(), bottom, mReleaseVelocity);
+		mReleaseVelocity = 0;
+		updateFramePhase();
+	}
+	
+	/**
+	 * Update the phase of frame metrics, if frame metrics is used.
+	 */
+	private void updateFramePhase() {
+		if(null == mFrameMetrics) {
+			return;
+		}
+		if(mHeaderSettle.isRunning() || mFooterSettle.isRunning()) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_SETTLE);
+		} else if(mState == LOADING) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_LOADING);
+		} else if(mIsRecored && (mState == PULL_TO_LOAD || mState == RELEASE_TO_LOAD)) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_DRAG);
+		} else {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_NONE);
+		}
+	}
+	
+	/**
+	 * The gesture never released, drop the pull and the speculative loading with it.
+	 */
+	private void dropGesture() {
+		if(null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+		if(mState == PULL_TO_LOAD || mState == RELEASE_TO_LOAD) {
+			mLoadMetrics.onPullAborted();
+			mState = IDEL;
+			if(mRefreshable && mFirstItemIndex == 0) {
+				updateHeaderViewByState();
+			} else {
+				updateFooterViewByState();
+			}
+		}
+		mReleaseVelocity = 0;
+		mIsRecored = false;
+		mIsBack = false;
+		recycleVelocityTracker();
+	}
+	
+	/**
+	 * Recycle the velocity tracker when touch was finished.
+	 */
+	private void recycleVelocityTracker() {
+		if(null != mVelocityTracker) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
+		}
+	}
+
+	/**
+	 * Bind visible rows in full, they may be bound cheaply while flinging.
+	 */
+	private void bindVisibleRowsFull() {
+		final ListAdapter adapter = (ListAdapter) mTieredAdapter;
+		final int firstPosition = getFirstVisiblePosition() - getHeaderViewsCount();
+		final int count = adapter.getCount();
+		for(int i = 0; i < getChildCount(); i++) {
+			int position = firstPosition + i;
+			if(position >= 0 && position < count) {
+				mTieredAdapter.bindFull(getChildAt(i), position);
+			}
+		}
+	}
+
+	/**
+	 * Start an operation with a new token, and time it out if timeout is set.
+	 * @param operation
+	 * @param timeout
+	 */
+	private void startOperation(int operation, long timeout) {
+		mLoadToken++;
+		mLoadingOperation = operation;
+		if(operation == OPERATION_REFRESH) {
+			mRefreshAbandoned = false;
+		} else {
+			mLoadMoreAbandoned = false;
+		}
+		removeCallbacks(mLoadTimeoutRunnable);
+		if(timeout > 0) {
+			postDelayed(mLoadTimeoutRunnable, timeout);
+		}
+	}
+	
+	/**
+	 * Cancel loading more for refreshing, the background loading is cancelled, the footer goes
+	 * back to idle state, and the result of the loading is dropped if it still comes.
+	 */
+	private void cancelLoadMore() {
+		if(null != mLoadMoreFuture) {
+			PullLoader.cancel(mLoadExecutor, mLoadMoreFuture);
+			mLoadMoreFuture = null;
+		}
+		mLoadToken++;
+		mLoadingOperation = OPERATION_NONE;
+		mLoadMoreAbandoned = true;
+		removeCallbacks(mLoadTimeoutRunnable);
+		RefreshScheduler.getInstance().finished(mScheduledLoadMore);
+		mLoadMetrics.onLoadMoreCancelled();
+		mState = IDEL;
+		updateFooterViewByState();
+	}
+	
+	/**
+	 * Abandon the refreshing or loading more in flight as this view was detached. The background
+	 * loading is cancelled, the late completion is ignored, and the view goes back to idle state.
+	 */
+	private void abandonOperations() {
+		if(null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancel();
+		}
+		if(null != mLoadMoreFuture) {
+			PullLoader.cancel(mLoadExecutor, mLoadMoreFuture);
+			mLoadMoreFuture = null;
+		}
+		removeCallbacks(mLoadTimeoutRunnable);
+		final int operation = mLoadingOperation;
+		if(operation == OPERATION_NONE) {
+			return;
+		}
+		mLoadToken++;
+		mLoadingOperation = OPERATION_NONE;
+		mState = IDEL;
+		if(operation == OPERATION_REFRESH) {
+			mRefreshAbandoned = true;
+			mLoadMetrics.onRefreshCancelled();
+			updateHeaderViewByState();
+			setHeaderPadding(-mHeaderViewHeight);
+		} else {
+			mLoadMoreAbandoned = true;
+			mLoadMetrics.onLoadMoreCancelled();
+			updateFooterViewByState();
+			setFooterPadding(-mFooterViewHeight);
+		}
+	}
+	
+	/**
+	 * Whether the operation of the token is loading now.
+	 * @param operation
+	 * @param token
+	 * @return
+	 */
+	private boolean isLoading(int operation, int token) {
+		return mLoadingOperation == operation && mLoadToken == token;
+	}
+	
+	/**
+	 * The operation was not completed in time, go back to idle state.
+	 */
+	private void onLoadTimeout() {
+		final int operation = mLoadingOperation;
+		if(operation == OPERATION_NONE) {
+			return;
+		}
+		mLoadingOperation = OPERATION_NONE;
+		mState = IDEL;
+		if(operation == OPERATION_REFRESH) {
+			RefreshScheduler.getInstance().finished(mScheduledRefresh);
+			mRefreshAbandoned = true;
+			mLoadMetrics.onRefreshCancelled();
+			updateHeaderViewByState();
+			if(null != mLoadTimeoutListener) {
+				mLoadTimeoutListener.onRefreshTimeout();
+			}
+		} else {
+			RefreshScheduler.getInstance().finished(mScheduledLoadMore);
+			mLoadMoreAbandoned = true;
+			mLoadMetrics.onLoadMoreCancelled();
+			updateFooterViewByState();
+			if(null != mLoadTimeoutListener) {
+				mLoadTimeoutListener.onLoadMoreTimeout();
+			}
+		}
+	}
+
+	/**
+	 * Count a listener dispatch, if counters are used.
+	 * @param start the start time of dispatch in nanoseconds.
+	 */
+	private void countDispatch(long start) {
+		if(null != mCounters) {
+			mCounters.mDispatches++;
+			mCounters.mDispatchTime += System.nanoTime() - start;
+		}
 	}
 
 	/**
 	 * Load more
 	 */
 	private void loadMore() {
+		startOperation(OPERATION_LOAD_MORE, mLoadMoreTimeout);
+		RefreshScheduler.getInstance().started(this, mScheduledLoadMore);
+		mLoadMetrics.onLoadMoreStarted();
 		if(mLoadMoreListener != null) {
-			mLoadMoreListener.onLoadMore();
+			final long start = null == mCounters ? 0 : System.nanoTime();
+			DispatchWatchdog.Dispatch dispatch = DispatchWatchdog.begin("onLoadMore()");
+			final boolean traced = TraceUtil.beginSection(TraceUtil.DISPATCH_LOAD_MORE);
+			boolean completed = false;
+			try {
+				mLoadMoreListener.onLoadMore();
+				completed = true;
+			} finally {
+				TraceUtil.endSection(traced);
+				countDispatch(start);
+				DispatchWatchdog.end(dispatch, completed);
+			}
 		}
 	}
 	
@@ -667,8 +1561,22 @@ public class PullListView extends ListView implements IPullView, AbsListView.OnS
 	 * Refresh
 	 */
 	private void refresh() {
+		startOperation(OPERATION_REFRESH, mRefreshTimeout);
+		RefreshScheduler.getInstance().started(this, mScheduledRefresh);
+		mLoadMetrics.onRefreshStarted();
 		if (mRefreshListener != null) {
-			mRefreshListener.onRefresh();
+			final long start = null == mCounters ? 0 : System.nanoTime();
+			DispatchWatchdog.Dispatch dispatch = DispatchWatchdog.begin("onRefresh()");
+			final boolean traced = TraceUtil.beginSection(TraceUtil.DISPATCH_REFRESH);
+			boolean completed = false;
+			try {
+				mRefreshListener.onRefresh();
+				completed = true;
+			} finally {
+				TraceUtil.endSection(traced);
+				countDispatch(start);
+				DispatchWatchdog.end(dispatch, completed);
+			}
 		}
 	}
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.SystemClock;
+
+/**
+ * Usage The load metrics of a pull view, how long refreshing and loading more took,
+ * and how users pulled.<br>
+ * <p>The time is from calling {@link OnRefreshListener#onRefresh()} or
+ * {@link OnLoadMoreListener#onLoadMore()} to the completion was told to the view, it is
+ * the time users see the loading header or footer. Times go to {@link Histogram}s in
+ * milliseconds, so p50/p90/p99 can be read with {@link Histogram#getPercentile(float)}.<br>
+ * 
+ * <p>Counters take no lock, all getters can be called in any thread.
+ * Get it with {@link PullListView#getLoadMetrics()} or {@link PullScrollView#getLoadMetrics()}.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class PullLoadMetrics {
+	
+	/** The upper bounds of latency buckets, in milliseconds. */
+	private static final long [] LATENCY_BOUNDS = {
+		50, 100, 200, 300, 500, 750, 1000, 1500, 2000, 3000, 5000, 10000, 30000, 60000,
+	};
+	
+	private final Histogram mRefreshLatency = new Histogram(LATENCY_BOUNDS);
+	
+	private final Histogram mLoadMoreLatency = new Histogram(LATENCY_BOUNDS);
+	
+	private final AtomicLong mPullCount = new AtomicLong();
+	
+	private final AtomicLong mAbortedPullCount = new AtomicLong();
+	
+	private final AtomicLong mEndOfDataCount = new AtomicLong();
+	
+	/** The time refreshing started, 0 if not refreshing, used in main thread only. */
+	private long mRefreshStartTime = 0;
+	
+	/** The time loading more started, 0 if not loading, used in main thread only. */
+	private long mLoadMoreStartTime = 0;
+	
+	/**
+	 * Get the time of refreshing, in milliseconds.
+	 * @return
+	 */
+	public Histogram getRefreshLatency() {
+		return mRefreshLatency;
+	}
+	
+	/**
+	 * Get the time of loading more, in milliseconds.
+	 * @return
+	 */
+	public Histogram getLoadMoreLatency() {
+		return mLoadMoreLatency;
+	}
+	
+	/**
+	 * Get the count of pulls, a pull starts when the header or footer was pulled out.
+	 * @return
+	 */
+	public long getPullCount() {
+		return mPullCount.get();
+	}
+	
+	/**
+	 * Get the count of pulls which were released or pushed back before loading.
+	 * @return
+	 */
+	public long getAbortedPullCount() {
+		return mAbortedPullCount.get();
+	}
+	
+	/**
+	 * Get the count of reaching the end of list when there was no more data.
+	 * @return
+	 */
+	public long getEndOfDataCount() {
+		return mEndOfDataCount.get();
+	}
+	
+	/**
+	 * Clear all metrics.
+	 */
+	public void reset() {
+		mRefreshLatency.reset();
+		mLoadMoreLatency.reset();
+		mPullCount.set(0);
+		mAbortedPullCount.set(0);
+		mEndOfDataCount.set(0);
+	}
+	
+	void onPullStarted() {
+		mPullCount.incrementAndGet();
+	}
+	
+	void onPullAborted() {
+		mAbortedPullCount.incrementAndGet();
+	}
+	
+	void onEndOfData() {
+		mEndOfDataCount.incrementAndGet();
+	}
+	
+	void onRefreshStarted() {
+		mRefreshStartTime = SystemClock.uptimeMillis();
+	}
+	
+	void onRefreshCompleted() {
+		if(mRefreshStartTime > 0) {
+			mRefreshLatency.record(SystemClock.uptimeMillis() - mRefreshStartTime);
+			mRefreshStartTime = 0;
+		}
+	}
+	
+	void onRefreshCancelled() {
+		mRefreshStartTime = 0;
+	}
+	
+	void onLoadMoreStarted() {
+		mLoadMoreStartTime = SystemClock.uptimeMillis();
+	}
+	
+	void onLoadMoreCancelled() {
+		mLoadMoreStartTime = 0;
+	}
+	
+	void onLoadMoreCompleted() {
+		if(mLoadMoreStartTime > 0) {
+			mLoadMoreLatency.record(SystemClock.uptimeMillis() - mLoadMoreStartTime);
+			mLoadMoreStartTime = 0;
+		}
+	}
+}
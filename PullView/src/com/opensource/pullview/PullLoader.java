@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ * Usage Loads data of pull views in background threads, and posts the result to main thread.<br>
+ * <p>It is used by {@link OnRefreshInBackgroundListener} and {@link OnLoadMoreInBackgroundListener},
+ * the default executor is a small pool of background priority threads shared by all pull views.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public final class PullLoader {
+	
+	private static final int POOL_SIZE = 2;
+	
+	private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+	
+	private static Executor sDefaultExecutor;
+	
+	private PullLoader() {}
+	
+	/**
+	 * Usage The callback of loading, called in main thread.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	static interface Callback<T> {
+		
+		/**
+		 * Loading was finished.
+		 * @param result the result, null if failed.
+		 * @param error the error, null if succeeded.
+		 */
+		public void onLoaded(T result, Exception error);
+	}
+	
+	/**
+	 * Get the default executor of loading.
+	 * @return
+	 */
+	public static synchronized Executor getDefaultExecutor() {
+		if(null == sDefaultExecutor) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 
+					0L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+					new ThreadFactory() {
+				
+				private final AtomicInteger mCount = new AtomicInteger(1);
+				
+				@Override
+				public Thread newThread(final Runnable r) {
+					Thread thread = new Thread(new Runnable() {
+						
+						@Override
+						public void run() {
+							Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+							r.run();
+						}
+					}, "PullLoader #" + mCount.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			sDefaultExecutor = executor;
+		}
+		return sDefaultExecutor;
+	}
+	
+	/**
+	 * Cancel a loading started by {@link #load(Executor, Callable, Callback)}, the loader is interrupted
+	 * if it is running, and it is removed from the queue of executor if it is waiting, so it does not
+	 * keep the listener and its activity until dequeued.
+	 * @param executor the executor it was started in.
+	 * @param future
+	 */
+	static void cancel(Executor executor, Future<?> future) {
+		future.cancel(true);
+		if(executor instanceof ThreadPoolExecutor && future instanceof Runnable) {
+			((ThreadPoolExecutor) executor).remove((Runnable) future);
+		}
+	}
+	
+	/**
+	 * Load in the executor, and post the result to main thread.
+	 * @param executor
+	 * @param loader runs in the executor.
+	 * @param callback called in main thread, not called if it was cancelled before running.
+	 * @return the future to cancel loading, it interrupts the loader if it is running.
+	 */
+	static <T> Future<Void> load(Executor executor, final Callable<T> loader, final Callback<T> callback) {
+		final FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+			
+			@Override
+			public void run() {
+				T result = null;
+				Exception error = null;
+				try {
+					result = loader.call();
+				} catch (Exception e) {
+					error = e;
+				}
+				final T finalResult = result;
+				final Exception finalError = error;
+				sMainHandler.post(new Runnable() {
+					
+					@Override
+					public void run() {
+						callback.onLoaded(finalResult, finalError);
+					}
+				});
+			}
+		}, null);
+		executor.execute(task);
+		return task;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+/**
+ * Usage The resistance curve of pulling, changes the sliding distance of finger to the
+ * offset of header view or footer view.<br>
+ * <p>The curve is computed only once into a lookup table, so a move event only costs
+ * a table lookup. Curves are immutable and can be shared by all pull views.<br>
+ *
+ * <p>{@link #getDefault()} is the linear curve of {@link IPullView#OFFSET_RATIO}, use
+ * {@link #createLinear(float)}, {@link #createDamped(int, float)} or
+ * {@link #create(Curve)} for other curves.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public final class PullResistance {
+
+	/** The max sliding distance in the table, longer distance continues the last slope. */
+	private static final int TABLE_DISTANCE = 4096;
+
+	/** The sliding distance between two table entries. */
+	private static final int TABLE_STEP = 8;
+
+	/** Keeps float error of the table from dropping a whole pixel. */
+	private static final float ROUNDING = 0.001f;
+
+	private static PullResistance sDefault;
+
+	/** The offsets of sliding distance 0, TABLE_STEP, 2 * TABLE_STEP... */
+	private final float [] mOffsets;
+
+	/** The slope after the last table entry. */
+	private final float mTailSlope;
+
+	/**
+	 * Usage The resistance curve function.
+	 *
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static interface Curve {
+
+		/**
+		 * Get the offset of a sliding distance, it must not decrease when distance grows.
+		 * @param distance the sliding distance, not negative.
+		 * @return
+		 */
+		public float getOffset(float distance);
+	}
+
+	private PullResistance(Curve curve) {
+		final int count = TABLE_DISTANCE / TABLE_STEP + 1;
+		mOffsets = new float[count];
+		for(int i = 0; i < count; i++) {
+			mOffsets[i] = curve.getOffset(i * TABLE_STEP);
+		}
+		mTailSlope = (mOffsets[count - 1] - mOffsets[count - 2]) / TABLE_STEP;
+	}
+
+	/**
+	 * Get the default resistance, linear with ratio of {@link IPullView#OFFSET_RATIO}.
+	 * @return
+	 */
+	public static PullResistance getDefault() {
+		if(null == sDefault) {
+			sDefault = createLinear(IPullView.OFFSET_RATIO);
+		}
+		return sDefault;
+	}
+
+	/**
+	 * Create a linear resistance, offset is distance / ratio.
+	 * @param ratio
+	 * @return
+	 */
+	public static PullResistance createLinear(final float ratio) {
+		if(ratio <= 0) {
+			throw new IllegalArgumentException("Ratio must be greater than 0");
+		}
+		return new PullResistance(new Curve() {
+
+			@Override
+			public float getOffset(float distance) {
+				return distance / ratio;
+			}
+		});
+	}
+
+	/**
+	 * Create a damped resistance, it starts like a linear one with the ratio,
+	 * and gets harder while the offset comes close to maxOffset.
+	 * @param maxOffset
+	 * @param ratio
+	 * @return
+	 */
+	public static PullResistance createDamped(final int maxOffset, final float ratio) {
+		if(maxOffset <= 0 || ratio <= 0) {
+			throw new IllegalArgumentException("Max offset and ratio must be greater than 0");
+		}
+		return new PullResistance(new Curve() {
+
+			@Override
+			public float getOffset(float distance) {
+				return (float) (maxOffset * (1 - Math.exp(-distance / (ratio * maxOffset))));
+			}
+		});
+	}
+
+	/**
+	 * Create a resistance of custom curve.
+	 * @param curve
+	 * @return
+	 */
+	public static PullResistance create(Curve curve) {
+		if(null == curve) {
+			throw new IllegalArgumentException("Curve can not be null");
+		}
+		return new PullResistance(curve);
+	}
+
+	/**
+	 * Get the offset of sliding distance, negative distance gets negative offset.
+	 * @param distance
+	 * @return
+	 */
+	public int getOffset(int distance) {
+		if(distance < 0) {
+			return -getOffset(-distance);
+		}
+		final int last = mOffsets.length - 1;
+		final int index = distance / TABLE_STEP;
+		if(index >= last) {
+			return (int) (mOffsets[last] + (distance - last * TABLE_STEP) * mTailSlope + ROUNDING);
+		}
+		final float fraction = (float) (distance - index * TABLE_STEP) / TABLE_STEP;
+		return (int) (mOffsets[index] + (mOffsets[index + 1] - mOffsets[index]) * fraction + ROUNDING);
+	}
+
+	/**
+	 * Get the slope of the curve at a sliding distance, the offset moved by one pixel of finger,
+	 * it changes a finger velocity to the velocity of header view or footer view.
+	 * @param distance
+	 * @return
+	 */
+	public float getSlope(int distance) {
+		if(distance < 0) {
+			distance = -distance;
+		}
+		final int last = mOffsets.length - 1;
+		final int index = distance / TABLE_STEP;
+		if(index >= last) {
+			return mTailSlope;
+		}
+		return (mOffsets[index + 1] - mOffsets[index]) / TABLE_STEP;
+	}
+
+	/**
+	 * Get the sliding distance of an offset, the reverse of {@link #getOffset(int)}.
+	 * @param offset
+	 * @return
+	 */
+	public int getDistance(int offset) {
+		if(offset < 0) {
+			return -getDistance(-offset);
+		}
+		final int last = mOffsets.length - 1;
+		if(offset >= mOffsets[last]) {
+			if(mTailSlope <= 0) {
+				return TABLE_DISTANCE;
+			}
+			return (int) (last * TABLE_STEP + (offset - mOffsets[last]) / mTailSlope + ROUNDING);
+		}
+		int low = 0;
+		int high = last;
+		while(high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if(mOffsets[middle] <= offset) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		final float span = mOffsets[high] - mOffsets[low];
+		final float fraction = span == 0 ? 0 : (offset - mOffsets[low]) / span;
+		return (int) (low * TABLE_STEP + fraction * TABLE_STEP + ROUNDING);
+	}
+}
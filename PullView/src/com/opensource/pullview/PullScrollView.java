@@ -17,21 +17,24 @@
  */
 package com.opensource.pullview;
 
+import java.util.concurrent.Executor;
+
 import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.view.Gravity;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
-import android.view.animation.Animation;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.RotateAnimation;
+import android.view.ViewConfiguration;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.ScrollView;
-import android.widget.Scroller;
 
 import com.opensource.pullview.utils.DateUtil;
+import com.opensource.pullview.utils.TraceUtil;
 
 /**
  * Usage A custom scroll view can be pull to refresh.<br>
@@ -39,21 +42,51 @@ import com.opensource.pullview.utils.DateUtil;
  * <p> You can add child view use addView method.<br>
  * also you can add child view in layout xml file like this.<br>
  * 
+ * <p>While this view is detached, its listeners are kept weakly, so keep a reference of them
+ * if it will be attached again.<br>
+ * 
  * @author yinglovezhuzhu@gmail.com
  */
 public class PullScrollView extends ScrollView implements IPullView {
 
-	/** The Constant SCROLLBACK_HEADER. */
-	private final static int SCROLLBACK_HEADER = 0;
-
-	/** The Constant SCROLL_DURATION. */
-	private final static int SCROLL_DURATION = 400;
+	private static final int LISTENER_REFRESH = 0;
+	private static final int LISTENER_LOAD_TIMEOUT = 1;
 
 	/** The m last y. */
 	private float mLastY = -1;
 
-	/** The m scroller. */
-	private Scroller mScroller;
+	/** The sliding distance of finger which pulls the header view. */
+	private int mPullDistance = 0;
+
+	/** The resistance of pulling. */
+	private PullResistance mResistance = PullResistance.getDefault();
+
+	/** The velocity tracker of pulling. */
+	private VelocityTracker mVelocityTracker;
+
+	/** The max velocity of fling, in pixels per second. */
+	private int mMaxFlingVelocity;
+
+	/** The velocity to refresh when released before the threshold, in pixels per second. */
+	private int mFlingToLoadVelocity;
+
+	/** The settle animator of header view. */
+	private SettleAnimator mHeaderSettle;
+
+	/** The load metrics. */
+	private final PullLoadMetrics mLoadMetrics = new PullLoadMetrics();
+
+	/** The counters of work, null if not used. */
+	private PullViewCounters mCounters;
+
+	/** The recorder of touch events, null if not recording. */
+	private GestureTrace.Recorder mGestureRecorder;
+
+	/** The debug overlay, null if not enabled. */
+	private DebugOverlay mDebugOverlay;
+
+	/** The frame metrics, null if not used. */
+	private PullFrameMetrics mFrameMetrics;
 
 	/** The m scroll layout. */
 	private LinearLayout mScrollLayout;
@@ -73,19 +106,58 @@ public class PullScrollView extends ScrollView implements IPullView {
 	/** The m ab on refresh listener. */
 	private OnRefreshListener mOnRefreshListener = null;
 
-	/** The m scroll back. */
-	private int mScrollBack;
-	
+	/** The refresh listener if it runs a background listener, null if not. */
+	private BackgroundRefresh<?> mBackgroundRefresh;
+
+	/** Whether to start the background refresh when the header reaches the release threshold. */
+	private boolean mSpeculativeRefresh = false;
+
+	/** The executor of background listener. */
+	private Executor mLoadExecutor = PullLoader.getDefaultExecutor();
+
+	/** The listener of refreshing which timed out. */
+	private OnLoadTimeoutListener mLoadTimeoutListener = null;
+
+	/** The listeners kept weakly while this view is detached, null if attached. */
+	private DetachedListeners mDetachedListeners;
+
+	/** The timeout of refreshing in milliseconds, 0 is no timeout. */
+	private long mRefreshTimeout = 0;
+
+	/** The token of the last refreshing. */
+	private int mLoadToken = 0;
+
+	/** Whether the last refreshing timed out or was abandoned on detach, its late completion is ignored. */
+	private boolean mRefreshAbandoned = false;
+
+	/** Refreshing requested by {@link #requestRefresh()}, run by {@link RefreshScheduler}. */
+	private final Runnable mScheduledRefresh = new Runnable() {
+		
+		@Override
+		public void run() {
+			if(mPullRefreshing || !mEnablePullRefresh) {
+				RefreshScheduler.getInstance().finished(this);
+				return;
+			}
+			startRefresh();
+			mHeaderSettle.start(mHeaderView.getVisiableHeight(), mHeaderViewHeight);
+			updateFramePhase();
+		}
+	};
+
+	/** Times out the refreshing. */
+	private final Runnable mLoadTimeoutRunnable = new Runnable() {
+		
+		@Override
+		public void run() {
+			onRefreshTimeout();
+		}
+	};
+
 	/** The m state. */
 	private int mState = IDEL;
 	
 	private String mLastRefreshTime = "";
-	
-	/** The m rotate up anim. */
-	private Animation mRotateUpAnim;
-	
-	/** The m rotate down anim. */
-	private Animation mRotateDownAnim;
 
 	/**
 	 * Constructor
@@ -110,45 +182,132 @@ public class PullScrollView extends ScrollView implements IPullView {
 
 	@Override
 	public boolean onTouchEvent(MotionEvent ev) {
+		if(null != mGestureRecorder) {
+			mGestureRecorder.recordTouch(this, ev);
+		}
 		if(mEnablePullRefresh) {
-			if (mLastY == -1) {
-				mLastY = ev.getRawY();
-			}
+			final boolean traced = TraceUtil.beginSection(TraceUtil.TOUCH);
+			try {
+				if (mLastY == -1) {
+					mLastY = ev.getRawY();
+				}
 			
-			switch (ev.getAction()) {
-			case MotionEvent.ACTION_DOWN:
-				mLastY = ev.getRawY();
-				break;
-			case MotionEvent.ACTION_MOVE:
-				final float deltaY = ev.getRawY() - mLastY;
-				mLastY = ev.getRawY();
-				if ((mHeaderView.getVisiableHeight() > 0 || deltaY > 0)) {
-					updateHeaderView(deltaY / OFFSET_RATIO);
+				if(null == mVelocityTracker) {
+					mVelocityTracker = VelocityTracker.obtain();
 				}
-				break;
-			case MotionEvent.ACTION_UP:
-				mLastY = -1;
-				updateHeaderHeight();
-				if(mHeaderView.getVisiableHeight() >= mHeaderViewHeight) {
-					startRefresh();
+				mVelocityTracker.addMovement(ev);
+			
+				switch (ev.getAction()) {
+				case MotionEvent.ACTION_DOWN:
+					mLastY = ev.getRawY();
+					break;
+				case MotionEvent.ACTION_MOVE:
+					final float deltaY = ev.getRawY() - mLastY;
+					mLastY = ev.getRawY();
+					if ((mHeaderView.getVisiableHeight() > 0 || deltaY > 0)) {
+						updateHeaderView(deltaY);
+					}
+					break;
+				case MotionEvent.ACTION_UP:
+					mLastY = -1;
+					mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+					final float velocity = mVelocityTracker.getYVelocity();
+					final int height = mHeaderView.getVisiableHeight();
+					//Decide to refresh before settling, so the header settles to where it shows loading.
+					if(height >= mHeaderViewHeight || (height > 0 && velocity >= mFlingToLoadVelocity)) {
+						startRefresh();
+					} else if(height > 0 && !mPullRefreshing) {
+						mLoadMetrics.onPullAborted();
+					}
+					//A fling of content with the header hidden must not settle it.
+					if(height > 0) {
+						updateHeaderHeight(velocity * mResistance.getSlope(mPullDistance));
+					}
+					recycleVelocityTracker();
+					break;
+				case MotionEvent.ACTION_CANCEL:
+					dropGesture();
+					break;
+				default:
+					break;
 				}
-				break;
-			default:
-				break;
+				updateFramePhase();
+			} finally {
+				TraceUtil.endSection(traced);
 			}
 		}
 		return super.onTouchEvent(ev);
 	}
 
 	@Override
-	public void computeScroll() {
-		if (mScroller.computeScrollOffset()) {
-			if (mScrollBack == SCROLLBACK_HEADER) {
-				mHeaderView.setVisiableHeight(mScroller.getCurrY());
+	protected void dispatchDraw(Canvas canvas) {
+		super.dispatchDraw(canvas);
+		if(null != mDebugOverlay) {
+			mDebugOverlay.draw(canvas, mState);
+		}
+	}
+
+	@Override
+	public void requestLayout() {
+		if(null != mCounters) {
+			mCounters.mRequestLayouts++;
+		}
+		super.requestLayout();
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		if(null != mCounters) {
+			mCounters.mMeasures++;
+		}
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		if(null != mCounters) {
+			mCounters.mLayouts++;
+		}
+		super.onLayout(changed, l, t, r, b);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		if(null != mDetachedListeners) {
+			mOnRefreshListener = mDetachedListeners.take(LISTENER_REFRESH, mOnRefreshListener);
+			if(null != mBackgroundRefresh && !mBackgroundRefresh.retain()) {
+				mOnRefreshListener = null;
+				mBackgroundRefresh = null;
 			}
-			postInvalidate();
+			mLoadTimeoutListener = mDetachedListeners.take(LISTENER_LOAD_TIMEOUT, mLoadTimeoutListener);
+			mDetachedListeners = null;
+		}
+		updateFramePhase();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		RefreshScheduler.getInstance().remove(mScheduledRefresh);
+		if(-1 != mLastY) {
+			dropGesture();
+		}
+		abandonRefresh();
+		//Nothing of this view may stay posted while it is detached, it may never come back.
+		mHeaderSettle.end();
+		if(null != mFrameMetrics) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_NONE);
+		}
+		//Do not keep the activity through listeners, they are taken back when attached again.
+		mDetachedListeners = new DetachedListeners(mOnRefreshListener, mLoadTimeoutListener);
+		if(null != mBackgroundRefresh) {
+			//The background refresh is of this view, it keeps the listener weakly instead.
+			mBackgroundRefresh.release();
+		} else {
+			mOnRefreshListener = null;
 		}
-		super.computeScroll();
+		mLoadTimeoutListener = null;
+		super.onDetachedFromWindow();
 	}
 
 	@Override
@@ -203,7 +362,14 @@ public class PullScrollView extends ScrollView implements IPullView {
 	 * @param listener
 	 */
 	public void setOnRefreshListener(OnRefreshListener listener) {
+		if(null != mBackgroundRefresh && listener != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_REFRESH);
+		}
 		mOnRefreshListener = listener;
+		mBackgroundRefresh = listener instanceof BackgroundRefresh ? (BackgroundRefresh<?>) listener : null;
 		setPullRefreshEnable(null != listener);
 	}
 
@@ -211,14 +377,159 @@ public class PullScrollView extends ScrollView implements IPullView {
 	 * Refresh complete
 	 */
 	public void refreshComplete() {
+		if(mRefreshAbandoned && !mPullRefreshing) {
+			//Late completion of the refreshing which timed out or was abandoned.
+			mRefreshAbandoned = false;
+			return;
+		}
+		mRefreshAbandoned = false;
+		removeCallbacks(mLoadTimeoutRunnable);
+		RefreshScheduler.getInstance().finished(mScheduledRefresh);
 //		if (mPullRefreshing == true) {
+			final boolean traced = TraceUtil.beginSection(TraceUtil.REFRESH_COMPLETED);
+			mLoadMetrics.onRefreshCompleted();
 			mPullRefreshing = false;
-			updateHeaderHeight();
+			updateHeaderHeight(0);
 			mLastRefreshTime = DateUtil.getSystemDate("yyyy-MM-dd HH:mm:ss");
 			mHeaderView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+			TraceUtil.endSection(traced);
 //		}
 	}
 	
+	/**
+	 * Set listener to refresh data in background thread, the result is committed in main thread
+	 * and refreshing is completed by this view.<br>
+	 * <p>It replaces the listener set by {@link #setOnRefreshListener(OnRefreshListener)}.
+	 * @param listener
+	 * @see #setLoadExecutor(Executor)
+	 */
+	public <T> void setOnRefreshInBackgroundListener(final OnRefreshInBackgroundListener<T> listener) {
+		if(null == listener) {
+			setOnRefreshListener(null);
+			return;
+		}
+		setOnRefreshListener(new BackgroundRefresh<T>(listener) {
+			
+			@Override
+			Executor getExecutor() {
+				return mLoadExecutor;
+			}
+			
+			@Override
+			int getLoadToken() {
+				return mLoadToken;
+			}
+			
+			@Override
+			boolean isRefreshing(int token) {
+				return token == mLoadToken && mPullRefreshing;
+			}
+			
+			@Override
+			void complete(int token) {
+				refreshComplete(token);
+			}
+		});
+	}
+	
+	/**
+	 * Enable or disable speculative refresh, false is default.<br>
+	 * <p>When enabled, the listener set by {@link #setOnRefreshInBackgroundListener(OnRefreshInBackgroundListener)}
+	 * starts loading as soon as the header reaches the release threshold, and the loading is cancelled
+	 * (the background thread is interrupted) if the header is pulled back below it. The refresh
+	 * takes the loading over when released, so the time the finger is held is not waited again.
+	 * It has no effect on the listener set by {@link #setOnRefreshListener(OnRefreshListener)},
+	 * which can not be cancelled.
+	 * @param enabled
+	 */
+	public void setSpeculativeRefreshEnabled(boolean enabled) {
+		this.mSpeculativeRefresh = enabled;
+		if(!enabled && null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+	}
+	
+	/**
+	 * Set the executor to run background listeners.<br>
+	 * <p>{@link PullLoader#getDefaultExecutor()} is default.
+	 * @param executor
+	 */
+	public void setLoadExecutor(Executor executor) {
+		this.mLoadExecutor = null == executor ? PullLoader.getDefaultExecutor() : executor;
+	}
+	
+	/**
+	 * Request to refresh through {@link RefreshScheduler}, it shows the header and calls
+	 * {@link OnRefreshListener#onRefresh()} when the scheduler runs it.<br>
+	 * <p>Use it instead of refreshing by yourself when many pull views refresh at the same time.
+	 */
+	public void requestRefresh() {
+		if(mEnablePullRefresh) {
+			RefreshScheduler.getInstance().request(this, mScheduledRefresh);
+		}
+	}
+	
+	/**
+	 * Refresh complete, ignored if the token is not of the refreshing now.
+	 * @param token got by {@link #getLoadToken()} when refreshing started.
+	 */
+	public void refreshComplete(int token) {
+		if(token == mLoadToken && mPullRefreshing) {
+			refreshComplete();
+		}
+	}
+	
+	/**
+	 * Get the token of the last refreshing, get it in {@link OnRefreshListener#onRefresh()}
+	 * and complete with {@link #refreshComplete(int)}, so a completion of refreshing which
+	 * timed out is always ignored.
+	 * @return
+	 */
+	public int getLoadToken() {
+		return mLoadToken;
+	}
+	
+	/**
+	 * Set a renderer to draw the header indicator instead of the arrow, progress and text,
+	 * null to draw them again.
+	 * @param renderer
+	 * @see IndicatorRenderer
+	 */
+	public void setHeaderRenderer(IndicatorRenderer renderer) {
+		mHeaderView.setRenderer(renderer);
+	}
+	
+	/**
+	 * Set a recorder to record the touch events reaching this view, null to stop recording.
+	 * @param recorder
+	 * @see GestureTrace
+	 */
+	public void setGestureRecorder(GestureTrace.Recorder recorder) {
+		this.mGestureRecorder = recorder;
+	}
+	
+	/**
+	 * Set listener to listen refreshing which was not completed in time.
+	 * @param listener
+	 * @see #setRefreshTimeout(long)
+	 */
+	public void setOnLoadTimeoutListener(OnLoadTimeoutListener listener) {
+		if(null != mDetachedListeners) {
+			mDetachedListeners.replace(LISTENER_LOAD_TIMEOUT);
+		}
+		this.mLoadTimeoutListener = listener;
+	}
+	
+	/**
+	 * Set the timeout of refreshing.<br>
+	 * <p>If {@link #refreshComplete()} was not called in time, this view hides the header,
+	 * tells {@link OnLoadTimeoutListener#onRefreshTimeout()}, and ignores the late completion.
+	 * @param timeout in milliseconds, 0 is no timeout and is default.
+	 */
+	public void setRefreshTimeout(long timeout) {
+		this.mRefreshTimeout = Math.max(0, timeout);
+	}
+	
 	/**
 	 * Set header view label's visibility.<br>
 	 * <p>You can set the value of {@link View#GONE}、{@link View#VISIBLE}<br>
@@ -234,6 +545,64 @@ public class PullScrollView extends ScrollView implements IPullView {
 		mHeaderView.setLabelVisibility(visibility);
 	}
 	
+	/**
+	 * Set the resistance of pulling header view.<br>
+	 * <p>{@link PullResistance#getDefault()} is default.
+	 * @param resistance
+	 */
+	public void setPullResistance(PullResistance resistance) {
+		this.mResistance = null == resistance ? PullResistance.getDefault() : resistance;
+	}
+	
+	/**
+	 * Get the counters of the work this view does, counting starts after it was got first time.
+	 * @return
+	 * @see PullViewCounters
+	 */
+	public PullViewCounters getCounters() {
+		if(null == mCounters) {
+			mCounters = new PullViewCounters();
+			mHeaderView.getIndicatorView().setCounters(mCounters);
+		}
+		return mCounters;
+	}
+	
+	/**
+	 * Enable or disable the debug overlay, it draws the counters of this view on top of it.
+	 * @param enabled
+	 * @see DebugOverlay
+	 */
+	public void setDebugOverlayEnabled(boolean enabled) {
+		if(enabled == (null != mDebugOverlay)) {
+			return;
+		}
+		mDebugOverlay = enabled ? new DebugOverlay(this, getCounters()) : null;
+		invalidate();
+	}
+	
+	/**
+	 * Get the load metrics, how long refreshing took and how users pulled.
+	 * @return
+	 * @see PullLoadMetrics
+	 */
+	public PullLoadMetrics getLoadMetrics() {
+		return mLoadMetrics;
+	}
+	
+	/**
+	 * Get the frame metrics of pulling, frames are recorded after it was got first time.
+	 * @return
+	 * @see PullFrameMetrics
+	 */
+	public PullFrameMetrics getFrameMetrics() {
+		if(null == mFrameMetrics) {
+			mFrameMetrics = new PullFrameMetrics(this);
+			mHeaderView.getIndicatorView().setFrameMetrics(mFrameMetrics);
+			updateFramePhase();
+		}
+		return mFrameMetrics;
+	}
+	
 	/**
 	 * Set last refresh time.
 	 * @param time
@@ -254,11 +623,24 @@ public class PullScrollView extends ScrollView implements IPullView {
 
 	/**
 	 * 
-	 * Get Progress
+	 * Get progress drawable of header view
 	 * 
 	 * @return
 	 * @throws
 	 */
+	public Drawable getHeaderProgressDrawable() {
+		return mHeaderView.getProgressDrawable();
+	}
+
+	/**
+	 * 
+	 * Get Progress
+	 * 
+	 * @return a progress bar which is not shown, see {@link PullHeaderView#getProgress()}.
+	 * @deprecated There is no progress bar since the indicator is drawn in one view,
+	 * use {@link #getHeaderProgressDrawable()} instead.
+	 */
+	@Deprecated
 	public ProgressBar getHeaderProgress() {
 		return mHeaderView.getProgress();
 	}
@@ -269,8 +651,6 @@ public class PullScrollView extends ScrollView implements IPullView {
 	 * @param context the context
 	 */
 	private void initView(Context context) {
-		mScroller = new Scroller(context, new DecelerateInterpolator());
-
 		//Add content layout
 		LinearLayout.LayoutParams headerLp = new LinearLayout.LayoutParams(
 				LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
@@ -284,51 +664,110 @@ public class PullScrollView extends ScrollView implements IPullView {
 
 		// init header height
 		mHeaderViewHeight = mHeaderView.getViewHeight();
+		
+		final ViewConfiguration configuration = ViewConfiguration.get(context);
+		mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+		mFlingToLoadVelocity = (int) (FLING_TO_LOAD_VELOCITY * getResources().getDisplayMetrics().density + 0.5f);
 		mHeaderView.setGravity(Gravity.BOTTOM);
 		mScrollLayout.addView(mHeaderView, headerLp);
 		FrameLayout.LayoutParams lp = new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, 
 				FrameLayout.LayoutParams.MATCH_PARENT, Gravity.TOP);
 		this.addView(mScrollLayout, lp);
 		
-		mRotateUpAnim = new RotateAnimation(0.0f, -180.0f,
-				Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF,
-				0.5f);
-		mRotateUpAnim.setDuration(ROTATE_ANIMATION_DURATION);
-		mRotateUpAnim.setFillAfter(true);
-		mRotateDownAnim = new RotateAnimation(-180.0f, 0.0f,
-				Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF,
-				0.5f);
-		mRotateDownAnim.setDuration(ROTATE_ANIMATION_DURATION);
-		mRotateDownAnim.setFillAfter(true);
+		//The height of indicator changes while settling, so no layer for it.
+		mHeaderSettle = new SettleAnimator(this, null, new SettleAnimator.Callback() {
+			
+			@Override
+			public void onSettleUpdate(int value) {
+				mHeaderView.setVisiableHeight(value);
+			}
+			
+			@Override
+			public void onSettleEnd() {
+				updateFramePhase();
+			}
+		});
 		
 		mLastRefreshTime = DateUtil.getSystemDate(getResources().getString(R.string.pull_view_date_format));
 	}
 
 	/**
-	 * Refresh Header height.
+	 * Settle header height, to the header height when refreshing, otherwise hide it.
+	 * 
+	 * @param velocity the velocity to start settling from, in pixels per second.
 	 */
-	private void updateHeaderHeight() {
+	private void updateHeaderHeight(float velocity) {
 		int height = mHeaderView.getVisiableHeight();
-		if (height < mHeaderViewHeight || !mPullRefreshing) {
-			mScrollBack = SCROLLBACK_HEADER;
-			mScroller.startScroll(0, height, 0, -1 * height, SCROLL_DURATION);
-		} else if (height > mHeaderViewHeight || !mPullRefreshing) {
-			mScrollBack = SCROLLBACK_HEADER;
-			mScroller.startScroll(0, height, 0, -(height - mHeaderViewHeight),
-					SCROLL_DURATION);
+		if (mPullRefreshing && height > 0) {
+			mHeaderSettle.start(height, mHeaderViewHeight, velocity);
+		} else {
+			mHeaderSettle.start(height, 0, velocity);
+		}
+		updateFramePhase();
+	}
+	
+	/**
+	 * Update the phase of frame metrics, if frame metrics is used.
+	 */
+	private void updateFramePhase() {
+		if(null == mFrameMetrics) {
+			return;
+		}
+		if(mHeaderSettle.isRunning()) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_SETTLE);
+		} else if(mPullRefreshing) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_LOADING);
+		} else if(mLastY != -1 && mHeaderView.getVisiableHeight() > 0) {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_DRAG);
+		} else {
+			mFrameMetrics.setPhase(PullFrameMetrics.PHASE_NONE);
+		}
+	}
+	
+	/**
+	 * The gesture never released, so the header hides and the speculative loading must not go on.
+	 */
+	private void dropGesture() {
+		mLastY = -1;
+		if(null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancelSpeculation();
+		}
+		if(!mPullRefreshing) {
+			updateHeaderByState(PULL_TO_LOAD);
+		}
+		if(mHeaderView.getVisiableHeight() > 0) {
+			updateHeaderHeight(0);
+		}
+		recycleVelocityTracker();
+	}
+	
+	/**
+	 * Recycle the velocity tracker when touch was finished.
+	 */
+	private void recycleVelocityTracker() {
+		if(null != mVelocityTracker) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
 		}
-
-		invalidate();
 	}
 
 	/**
 	 * Update the visiable height of header view.
 	 * 
-	 * @param delta
+	 * @param delta the sliding distance of finger in this move.
 	 */
 	private void updateHeaderView(float delta) {
-		int newHeight = (int) delta + mHeaderView.getVisiableHeight();
-		mHeaderView.setVisiableHeight(newHeight);
+		mHeaderSettle.cancel();
+		final int visiableHeight = Math.max(0, mHeaderView.getVisiableHeight());
+		if(mResistance.getOffset(mPullDistance) != visiableHeight) {
+			//Catch the header where it is, it was settled or the touch was not from the start.
+			mPullDistance = mResistance.getDistance(visiableHeight);
+		}
+		mPullDistance = Math.max(0, mPullDistance + (int) delta);
+		mHeaderView.setVisiableHeight(mResistance.getOffset(mPullDistance));
+		if(visiableHeight == 0 && mHeaderView.getVisiableHeight() > 0 && !mPullRefreshing) {
+			mLoadMetrics.onPullStarted();
+		}
 		if (mEnablePullRefresh && !mPullRefreshing) {
 			if (mHeaderView.getVisiableHeight() >= mHeaderViewHeight) {
 				updateHeaderByState(RELEASE_TO_LOAD);
@@ -361,10 +800,72 @@ public class PullScrollView extends ScrollView implements IPullView {
 			return;
 		}
 		updateHeaderByState(LOADING);
-		if (mOnRefreshListener != null) {
-			mOnRefreshListener.onRefresh();
+		mLoadToken++;
+		mRefreshAbandoned = false;
+		RefreshScheduler.getInstance().started(this, mScheduledRefresh);
+		removeCallbacks(mLoadTimeoutRunnable);
+		if(mRefreshTimeout > 0) {
+			postDelayed(mLoadTimeoutRunnable, mRefreshTimeout);
 		}
+		mLoadMetrics.onRefreshStarted();
+		//Mark refreshing before dispatching, a speculative refresh may commit at once.
 		mPullRefreshing = true;
+		if (mOnRefreshListener != null) {
+			final long start = null == mCounters ? 0 : System.nanoTime();
+			DispatchWatchdog.Dispatch dispatch = DispatchWatchdog.begin("onRefresh()");
+			final boolean traced = TraceUtil.beginSection(TraceUtil.DISPATCH_REFRESH);
+			boolean completed = false;
+			try {
+				mOnRefreshListener.onRefresh();
+				completed = true;
+			} finally {
+				TraceUtil.endSection(traced);
+				if(null != mCounters) {
+					mCounters.mDispatches++;
+					mCounters.mDispatchTime += System.nanoTime() - start;
+				}
+				DispatchWatchdog.end(dispatch, completed);
+			}
+		}
+	}
+	
+	/**
+	 * Refreshing was not completed in time, hide the header and stop the progress.
+	 */
+	private void onRefreshTimeout() {
+		if(!mPullRefreshing) {
+			return;
+		}
+		mPullRefreshing = false;
+		mRefreshAbandoned = true;
+		mLoadMetrics.onRefreshCancelled();
+		RefreshScheduler.getInstance().finished(mScheduledRefresh);
+		updateHeaderByState(IDEL);
+		updateHeaderHeight(0);
+		if(null != mLoadTimeoutListener) {
+			mLoadTimeoutListener.onRefreshTimeout();
+		}
+	}
+	
+	/**
+	 * Abandon the refreshing in flight as this view was detached. The background loading
+	 * is cancelled, the late completion is ignored, and the header is hidden at once.
+	 */
+	private void abandonRefresh() {
+		if(null != mBackgroundRefresh) {
+			mBackgroundRefresh.cancel();
+		}
+		removeCallbacks(mLoadTimeoutRunnable);
+		if(!mPullRefreshing) {
+			return;
+		}
+		mPullRefreshing = false;
+		mRefreshAbandoned = true;
+		mLoadMetrics.onRefreshCancelled();
+		updateHeaderByState(IDEL);
+		mHeaderSettle.cancel();
+		mHeaderView.setVisiableHeight(0);
+		updateFramePhase();
 	}
 	
 	/**
@@ -376,9 +877,17 @@ public class PullScrollView extends ScrollView implements IPullView {
 		if (state == mState) {
 			return ;
 		}
+		final boolean traced = TraceUtil.beginSection(TraceUtil.UPDATE_HEADER);
+		if(null != mBackgroundRefresh) {
+			if(state == RELEASE_TO_LOAD && mSpeculativeRefresh) {
+				mBackgroundRefresh.speculate();
+			} else if(state == PULL_TO_LOAD || state == IDEL) {
+				mBackgroundRefresh.cancelSpeculation();
+			}
+		}
 		
 		if (state == LOADING) {	
-			mHeaderView.startArrowAnimation(null);
+			mHeaderView.rotateArrow(0, false);
 			mHeaderView.setArrowVisibility(View.GONE);
 			mHeaderView.setProgressVisibility(View.VISIBLE);
 			
@@ -390,26 +899,34 @@ public class PullScrollView extends ScrollView implements IPullView {
 		switch(state){
 			case PULL_TO_LOAD:
 				if (mState == RELEASE_TO_LOAD) {
-					mHeaderView.startArrowAnimation(mRotateDownAnim);
+					mHeaderView.rotateArrow(0, true);
 				}
 				if (mState == LOADING) {
-					mHeaderView.startArrowAnimation(null);
+					mHeaderView.rotateArrow(0, false);
 				}
 				mHeaderView.setTitleText(R.string.pull_view_pull_to_refresh);
 				mHeaderView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
 				break;
 			case RELEASE_TO_LOAD:
 				if (mState != RELEASE_TO_LOAD) {
-					mHeaderView.startArrowAnimation(mRotateUpAnim);
+					mHeaderView.rotateArrow(-180, true);
 					mHeaderView.setTitleText(R.string.pull_view_release_to_refresh);
 				}
 				break;
 			case LOADING:
 				mHeaderView.setTitleText(R.string.pull_view_refreshing);
 				break;
+			case IDEL:
+				//The header is collapsing, reset it without animation.
+				mHeaderView.rotateArrow(0, false);
+				mHeaderView.setTitleText(R.string.pull_view_pull_to_refresh);
+				mHeaderView.setLabelText(getResources().getText(R.string.pull_view_refresh_time) + " " + mLastRefreshTime);
+				break;
 				default:
 			}
 		
 		mState = state;
+		mHeaderView.setPullState(state);
+		TraceUtil.endSection(traced);
 	}
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+/**
+ * Usage The counters of the work a pull view does, for checking the cost of pulling.<br>
+ * <p>Counts layout requests, measure and layout passes of the view, text updates and draws
+ * of its header and footer, and listener dispatches. Counters are only kept after they were
+ * got by getCounters() of the view, and they are changed in main thread only.<br>
+ * 
+ * <p>Used by {@link DebugOverlay} to show the cost in real time, and by the tests of
+ * PullViewTest to assert the cost of scripted gestures.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class PullViewCounters {
+	
+	long mRequestLayouts;
+	
+	long mMeasures;
+	
+	long mLayouts;
+	
+	long mIndicatorTextUpdates;
+	
+	long mIndicatorDraws;
+	
+	long mDispatches;
+	
+	long mDispatchTime;
+	
+	/**
+	 * Get the count of layout requests of the view.
+	 * @return
+	 */
+	public long getRequestLayouts() {
+		return mRequestLayouts;
+	}
+	
+	/**
+	 * Get the count of measure passes of the view.
+	 * @return
+	 */
+	public long getMeasures() {
+		return mMeasures;
+	}
+	
+	/**
+	 * Get the count of layout passes of the view.
+	 * @return
+	 */
+	public long getLayouts() {
+		return mLayouts;
+	}
+	
+	/**
+	 * Get the count of text changes of header and footer.
+	 * @return
+	 */
+	public long getIndicatorTextUpdates() {
+		return mIndicatorTextUpdates;
+	}
+	
+	/**
+	 * Get the count of draws of header and footer.
+	 * @return
+	 */
+	public long getIndicatorDraws() {
+		return mIndicatorDraws;
+	}
+	
+	/**
+	 * Get the count of refresh and load more listener dispatches.
+	 * @return
+	 */
+	public long getDispatches() {
+		return mDispatches;
+	}
+	
+	/**
+	 * Get the total time of listener dispatches, in nanoseconds.
+	 * @return
+	 */
+	public long getDispatchTime() {
+		return mDispatchTime;
+	}
+	
+	/**
+	 * Clear all counters.
+	 */
+	public void reset() {
+		mRequestLayouts = 0;
+		mMeasures = 0;
+		mLayouts = 0;
+		mIndicatorTextUpdates = 0;
+		mIndicatorDraws = 0;
+		mDispatches = 0;
+		mDispatchTime = 0;
+	}
+	
+	/**
+	 * Copy the counters.
+	 * @param counters
+	 */
+	public void set(PullViewCounters counters) {
+		mRequestLayouts = counters.mRequestLayouts;
+		mMeasures = counters.mMeasures;
+		mLayouts = counters.mLayouts;
+		mIndicatorTextUpdates = counters.mIndicatorTextUpdates;
+		mIndicatorDraws = counters.mIndicatorDraws;
+		mDispatches = counters.mDispatches;
+		mDispatchTime = counters.mDispatchTime;
+	}
+	
+	@Override
+	public String toString() {
+		return "requestLayouts=" + mRequestLayouts + ", measures=" + mMeasures + ", layouts=" + mLayouts 
+				+ ", indicatorTextUpdates=" + mIndicatorTextUpdates + ", indicatorDraws=" + mIndicatorDraws
+				+ ", dispatches=" + mDispatches + ", dispatchTime=" + mDispatchTime + "ns";
+	}
+}
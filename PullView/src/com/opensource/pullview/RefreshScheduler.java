@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.util.ArrayList;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Usage The process-wide scheduler of refreshing and loading more of all pull views.<br>
+ * <p>Screens with many pull views(pages of a ViewPager for example) ask all of them to
+ * refresh at the same time after started or resumed. With the scheduler, at most
+ * {@link #setMaxRunning(int)} operations are running at the same time, visible views
+ * run first, views off screen wait until they are shown or {@link #setOffscreenDelay(long)}
+ * passed, and repeated requests of one operation are merged into one.<br>
+ * 
+ * <p>Refreshing and loading more started by the user's gesture are never delayed, and they
+ * do not take a slot of the running ones. Waiting operations are woken up when a slot is freed,
+ * when the view tree of a waiting view scrolls or lays out, and when their off screen delay
+ * passed, nothing is polled. Request an operation with {@link PullListView#requestRefresh()},
+ * {@link PullListView#requestLoadMore()} or {@link PullScrollView#requestRefresh()}.
+ * All methods must be called in main thread.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public final class RefreshScheduler {
+	
+	/** The default max count of running operations. */
+	public static final int DEFAULT_MAX_RUNNING = 2;
+	
+	/** The default time which views off screen wait, in milliseconds. */
+	public static final long DEFAULT_OFFSCREEN_DELAY = 3000;
+	
+	private static RefreshScheduler sInstance;
+	
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+	
+	private final ArrayList<Request> mPending = new ArrayList<Request>();
+	
+	private final ArrayList<Request> mRunning = new ArrayList<Request>();
+	
+	private final Rect mTempRect = new Rect();
+	
+	private int mMaxRunning = DEFAULT_MAX_RUNNING;
+	
+	private long mOffscreenDelay = DEFAULT_OFFSCREEN_DELAY;
+	
+	private boolean mScheduling = false;
+	
+	private final Runnable mScheduleRunnable = new Runnable() {
+		
+		@Override
+		public void run() {
+			schedule();
+		}
+	};
+	
+	/** A waiting view may have been scrolled or laid out onto the screen. */
+	private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener = 
+			new ViewTreeObserver.OnScrollChangedListener() {
+		
+		@Override
+		public void onScrollChanged() {
+			wake();
+		}
+	};
+	
+	private final ViewTreeObserver.OnGlobalLayoutListener mGlobalLayoutListener = 
+			new ViewTreeObserver.OnGlobalLayoutListener() {
+		
+		@Override
+		public void onGlobalLayout() {
+			wake();
+		}
+	};
+	
+	private RefreshScheduler() {}
+	
+	/**
+	 * Get the scheduler.
+	 * @return
+	 */
+	public static RefreshScheduler getInstance() {
+		if(null == sInstance) {
+			sInstance = new RefreshScheduler();
+		}
+		return sInstance;
+	}
+	
+	/**
+	 * Set the max count of running operations.
+	 * @param max
+	 */
+	public void setMaxRunning(int max) {
+		if(max <= 0) {
+			throw new IllegalArgumentException("Max running count must be greater than 0");
+		}
+		this.mMaxRunning = max;
+		schedule();
+	}
+	
+	/**
+	 * Set the time which views off screen wait before running, they run at once when shown.
+	 * @param delay in milliseconds.
+	 */
+	public void setOffscreenDelay(long delay) {
+		this.mOffscreenDelay = Math.max(0, delay);
+		schedule();
+	}
+	
+	/**
+	 * Get the count of running operations.
+	 * @return
+	 */
+	public int getRunningCount() {
+		return mRunning.size();
+	}
+	
+	/**
+	 * Get the count of waiting operations.
+	 * @return
+	 */
+	public int getPendingCount() {
+		return mPending.size();
+	}
+	
+	/**
+	 * Request an operation, it is merged if the operation is waiting or running.
+	 * @param view the pull view.
+	 * @param operation the operation, it is also the key of the operation.
+	 */
+	void request(View view, Runnable operation) {
+		if(indexOf(mRunning, operation) >= 0 || indexOf(mPending, operation) >= 0) {
+			return;
+		}
+		addPending(new Request(view, operation));
+		schedule();
+	}
+	
+	/**
+	 * An operation was started by the view itself. If it was requested, it is running in its
+	 * slot already, otherwise it was started by the user's gesture and takes no slot, a waiting
+	 * request of it is merged into it.
+	 * @param view
+	 * @param operation
+	 */
+	void started(View view, Runnable operation) {
+		int index = indexOf(mPending, operation);
+		if(index >= 0) {
+			removePending(index);
+		}
+	}
+	
+	/**
+	 * An operation was finished, completed, timed out or abandoned. Its slot is freed, and 
+	 * waiting operations are run later, not in the call of the finishing view.
+	 * @param operation
+	 */
+	void finished(Runnable operation) {
+		int index = indexOf(mRunning, operation);
+		if(index >= 0) {
+			mRunning.remove(index);
+			wake();
+		}
+	}
+	
+	/**
+	 * Remove an operation, whether it is waiting or running.
+	 * @param operation
+	 */
+	void remove(Runnable operation) {
+		int index = indexOf(mPending, operation);
+		if(index >= 0) {
+			removePending(index);
+		}
+		finished(operation);
+	}
+	
+	/**
+	 * Schedule again later in main thread, if a waiting operation may run.
+	 */
+	private void wake() {
+		if(!mPending.isEmpty() && mRunning.size() < mMaxRunning) {
+			mHandler.removeCallbacks(mScheduleRunnable);
+			mHandler.post(mScheduleRunnable);
+		}
+	}
+	
+	/**
+	 * Run waiting operations while there are free slots, visible views first.
+	 */
+	private void schedule() {
+		if(mScheduling) {
+			//An operation requested another one while running, the loop below picks it up.
+			return;
+		}
+		mScheduling = true;
+		mHandler.removeCallbacks(mScheduleRunnable);
+		while(mRunning.size() < mMaxRunning && !mPending.isEmpty()) {
+			int index = nextIndex();
+			if(index < 0) {
+				break;
+			}
+			Request request = removePending(index);
+			mRunning.add(request);
+			request.mOperation.run();
+		}
+		mScheduling = false;
+		if(!mPending.isEmpty() && mRunning.size() < mMaxRunning) {
+			//All waiting views are off screen, run the first one when its delay passed.
+			mHandler.postAtTime(mScheduleRunnable, mPending.get(0).mTime + mOffscreenDelay);
+		}
+	}
+	
+	private void addPending(Request request) {
+		mPending.add(request);
+		final ViewTreeObserver observer = request.mView.getViewTreeObserver();
+		observer.addOnScrollChangedListener(mScrollChangedListener);
+		observer.addOnGlobalLayoutListener(mGlobalLayoutListener);
+	}
+	
+	@SuppressWarnings("deprecation")
+	private Request removePending(int index) {
+		final Request request = mPending.remove(index);
+		final ViewTreeObserver observer = request.mView.getViewTreeObserver();
+		if(observer.isAlive()) {
+			observer.removeOnScrollChangedListener(mScrollChangedListener);
+			observer.removeGlobalOnLayoutListener(mGlobalLayoutListener);
+		}
+		return request;
+	}
+	
+	/**
+	 * Get the index of the next operation to run, the first visible one, or the first one
+	 * which waited long enough.
+	 * @return -1 if no operation can run now.
+	 */
+	private int nextIndex() {
+		final long now = SystemClock.uptimeMillis();
+		int waited = -1;
+		for(int i = 0; i < mPending.size(); i++) {
+			Request request = mPending.get(i);
+			if(isVisible(request.mView)) {
+				return i;
+			}
+			if(waited < 0 && now - request.mTime >= mOffscreenDelay) {
+				waited = i;
+			}
+		}
+		return waited;
+	}
+	
+	private boolean isVisible(View view) {
+		return view.getWindowVisibility() == View.VISIBLE && view.isShown()
+				&& view.getGlobalVisibleRect(mTempRect);
+	}
+	
+	private static int indexOf(ArrayList<Request> requests, Runnable operation) {
+		for(int i = 0; i < requests.size(); i++) {
+			if(requests.get(i).mOperation == operation) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Usage A requested operation.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	private static class Request {
+		
+		private final View mView;
+		
+		private final Runnable mOperation;
+		
+		private final long mTime = SystemClock.uptimeMillis();
+		
+		private Request(View view, Runnable operation) {
+			this.mView = view;
+			this.mOperation = operation;
+		}
+	}
+}
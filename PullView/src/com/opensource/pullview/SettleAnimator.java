@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Usage Settles the header or footer of pull views to a position after the finger left.<br>
+ * <p>It is a spring, stepped once in every frame(vsync) by the host view, nothing is
+ * allocated while it runs and it stops when the value and speed both settled down.
+ * All pull views use it for their header and footer.<br>
+ *
+ * <p>The layer view(the indicator which content does not change while settling) is drawn
+ * on a hardware layer while settling, so every frame only costs a layer composition of it.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class SettleAnimator implements Runnable {
+
+	/** The default stiffness of spring, settles in about 250 milliseconds. */
+	public static final float DEFAULT_STIFFNESS = 400f;
+
+	/** The default damping ratio of spring, critically damped. */
+	public static final float DEFAULT_DAMPING_RATIO = 1f;
+
+	/** Max time step of one integration, in seconds. */
+	private static final float MAX_STEP = 0.004f;
+
+	/** Max time of one frame, in seconds, longer frame is treated as this. */
+	private static final float MAX_FRAME_TIME = 0.1f;
+
+	/** Settled when distance to the target is less than this, in pixels. */
+	private static final float SETTLED_DISTANCE = 0.5f;
+
+	/** Settled when speed is less than this, in pixels per second. */
+	private static final float SETTLED_VELOCITY = 20f;
+
+	private final View mHost;
+
+	private final View mLayerView;
+
+	private final Callback mCallback;
+
+	private float mStiffness = DEFAULT_STIFFNESS;
+
+	private float mDamping;
+
+	private float mValue;
+
+	private float mVelocity;
+
+	private int mTarget;
+
+	private int mLastValue;
+
+	private long mLastFrameTime;
+
+	private boolean mRunning = false;
+
+	/**
+	 * Usage The callback of settle.
+	 *
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static interface Callback {
+
+		/**
+		 * Settle to the value in this frame.
+		 * @param value
+		 */
+		public void onSettleUpdate(int value);
+
+		/**
+		 * Settle was finished.
+		 */
+		public void onSettleEnd();
+	}
+
+	/**
+	 * Constructor
+	 * @param host the view to step this animator in its frames.
+	 * @param layerView the view to draw on a hardware layer while settling, can be null.
+	 * @param callback
+	 */
+	public SettleAnimator(View host, View layerView, Callback callback) {
+		this.mHost = host;
+		this.mLayerView = layerView;
+		this.mCallback = callback;
+		setSpring(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+	}
+
+	/**
+	 * Set the spring.
+	 * @param stiffness the stiffness, greater is faster.
+	 * @param dampingRatio 1 is critically damped, less than 1 bounces.
+	 */
+	public void setSpring(float stiffness, float dampingRatio) {
+		if(stiffness <= 0 || dampingRatio <= 0) {
+			throw new IllegalArgumentException("Stiffness and damping ratio must be greater than 0");
+		}
+		mStiffness = stiffness;
+		mDamping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+	}
+
+	/**
+	 * Start to settle from a value to another.
+	 * @param from
+	 * @param to
+	 */
+	public void start(int from, int to) {
+		start(from, to, 0f);
+	}
+
+	/**
+	 * Start to settle from a value to another with an initial velocity.
+	 * @param from
+	 * @param to
+	 * @param velocity the initial velocity in pixels per second.
+	 */
+	public void start(int from, int to, float velocity) {
+		if(from == to && Math.abs(velocity) < SETTLED_VELOCITY) {
+			cancel();
+			mCallback.onSettleUpdate(to);
+			mCallback.onSettleEnd();
+			return;
+		}
+		mValue = from;
+		mLastValue = from;
+		mTarget = to;
+		mVelocity = velocity;
+		mLastFrameTime = AnimationUtils.currentAnimationTimeMillis();
+		if(!mRunning) {
+			mRunning = true;
+			if(null != mLayerView) {
+				ViewCompat.setLayerType(mLayerView, ViewCompat.LAYER_TYPE_HARDWARE, null);
+			}
+			ViewCompat.postOnAnimation(mHost, this);
+		}
+	}
+
+	/**
+	 * Finish settling at once, the value jumps to the target and {@link Callback#onSettleEnd()} is called.
+	 * Does nothing if it is not settling.
+	 */
+	public void end() {
+		if(mRunning) {
+			cancel();
+			mCallback.onSettleUpdate(mTarget);
+			mCallback.onSettleEnd();
+		}
+	}
+
+	/**
+	 * Stop settling where it is, {@link Callback#onSettleEnd()} will not be called.
+	 */
+	public void cancel() {
+		if(mRunning) {
+			mRunning = false;
+			mHost.removeCallbacks(this);
+			releaseLayer();
+		}
+	}
+
+	/**
+	 * Whether it is settling.
+	 * @return
+	 */
+	public boolean isRunning() {
+		return mRunning;
+	}
+
+	@Override
+	public void run() {
+		if(!mRunning) {
+			return;
+		}
+		final long now = AnimationUtils.currentAnimationTimeMillis();
+		float frameTime = Math.min((now - mLastFrameTime) / 1000f, MAX_FRAME_TIME);
+		mLastFrameTime = now;
+		while(frameTime > 0) {
+			final float step = Math.min(frameTime, MAX_STEP);
+			final float acceleration = -mStiffness * (mValue - mTarget) - mDamping * mVelocity;
+			mVelocity += acceleration * step;
+			mValue += mVelocity * step;
+			frameTime -= step;
+		}
+
+		if(Math.abs(mValue - mTarget) < SETTLED_DISTANCE && Math.abs(mVelocity) < SETTLED_VELOCITY) {
+			mRunning = false;
+			releaseLayer();
+			mCallback.onSettleUpdate(mTarget);
+			mCallback.onSettleEnd();
+			return;
+		}
+		final int value = Math.round(mValue);
+		if(value != mLastValue) {
+			mLastValue = value;
+			mCallback.onSettleUpdate(value);
+		}
+		ViewCompat.postOnAnimation(mHost, this);
+	}
+
+	private void releaseLayer() {
+		if(null != mLayerView) {
+			ViewCompat.setLayerType(mLayerView, ViewCompat.LAYER_TYPE_NONE, null);
+		}
+	}
+}
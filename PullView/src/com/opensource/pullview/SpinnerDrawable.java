@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Usage The progress drawable of pull views, draws twelve fading spokes with canvas.<br>
+ * <p>No bitmap is decoded. Spokes and paint live in a {@link ConstantState} which is shared
+ * by all spinners with the same color, and every spinner turns by the same animation clock,
+ * so it is smooth at display rate and no animator is kept per instance. Alpha and color filter
+ * are of every spinner, they never change the shared state.<br>
+ *
+ * <p>Use it with {@link PullHeaderView#setHeaderProgressBarDrawable(Drawable)} or
+ * {@link PullFooterView#setHeaderProgressBarDrawable(Drawable)}.
+ *
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class SpinnerDrawable extends Drawable implements Animatable {
+
+	/** The default color of spinner. */
+	public static final int DEFAULT_COLOR = Color.rgb(58, 142, 230);
+
+	/** The count of spokes. */
+	private static final int SPOKE_COUNT = 12;
+
+	/** The duration of one turn. */
+	private static final int TURN_DURATION = 1000;
+
+	/** Cosine of every spoke angle. */
+	private static final float [] SPOKE_COS = new float[SPOKE_COUNT];
+
+	/** Sine of every spoke angle. */
+	private static final float [] SPOKE_SIN = new float[SPOKE_COUNT];
+
+	/** Alpha of every spoke, the first one is the head. */
+	private static final int [] SPOKE_ALPHA = new int[SPOKE_COUNT];
+
+	static {
+		for(int i = 0; i < SPOKE_COUNT; i++) {
+			double angle = 2 * Math.PI * i / SPOKE_COUNT;
+			SPOKE_COS[i] = (float) Math.cos(angle);
+			SPOKE_SIN[i] = (float) Math.sin(angle);
+			SPOKE_ALPHA[i] = 255 - 200 * i / SPOKE_COUNT;
+		}
+	}
+
+	/** The shared state of default color. */
+	private static SpinnerState sDefaultState;
+
+	private SpinnerState mState;
+
+	private int mAlpha = 255;
+
+	private ColorFilter mColorFilter;
+
+	private boolean mMutated = false;
+
+	private boolean mRunning = false;
+
+	/**
+	 * Constructor, the spinner of default color.
+	 */
+	public SpinnerDrawable() {
+		if(null == sDefaultState) {
+			sDefaultState = new SpinnerState(DEFAULT_COLOR);
+		}
+		mState = sDefaultState;
+	}
+
+	/**
+	 * Constructor
+	 * @param color the color of spokes.
+	 */
+	public SpinnerDrawable(int color) {
+		mState = new SpinnerState(color);
+	}
+
+	private SpinnerDrawable(SpinnerState state) {
+		mState = state;
+	}
+
+	@Override
+	public void draw(Canvas canvas) {
+		final Rect bounds = getBounds();
+		final float cx = bounds.exactCenterX();
+		final float cy = bounds.exactCenterY();
+		final float radius = Math.min(bounds.width(), bounds.height()) / 2f;
+		final float strokeWidth = radius / 5f;
+		final float outer = radius - strokeWidth / 2f;
+		final float inner = radius / 2f;
+		final Paint paint = mState.mPaint;
+		final int alpha = mAlpha;
+		paint.setStrokeWidth(strokeWidth);
+		paint.setColorFilter(mColorFilter);
+
+		int saveCount = canvas.save();
+		long time = AnimationUtils.currentAnimationTimeMillis() % TURN_DURATION;
+		canvas.rotate(360f * time / TURN_DURATION, cx, cy);
+		for(int i = 0; i < SPOKE_COUNT; i++) {
+			paint.setAlpha(SPOKE_ALPHA[i] * alpha / 255);
+			canvas.drawLine(cx + SPOKE_COS[i] * inner, cy - SPOKE_SIN[i] * inner,
+					cx + SPOKE_COS[i] * outer, cy - SPOKE_SIN[i] * outer, paint);
+		}
+		canvas.restoreToCount(saveCount);
+
+		if(mRunning) {
+			invalidateSelf();
+		}
+	}
+
+	@Override
+	public void start() {
+		if(!mRunning) {
+			mRunning = true;
+			invalidateSelf();
+		}
+	}
+
+	@Override
+	public void stop() {
+		mRunning = false;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return mRunning;
+	}
+
+	@Override
+	public void setAlpha(int alpha) {
+		mAlpha = alpha;
+		invalidateSelf();
+	}
+
+	@Override
+	public void setColorFilter(ColorFilter cf) {
+		mColorFilter = cf;
+		invalidateSelf();
+	}
+
+	@Override
+	public int getOpacity() {
+		return PixelFormat.TRANSLUCENT;
+	}
+
+	@Override
+	public Drawable mutate() {
+		if(!mMutated && super.mutate() == this) {
+			mState = new SpinnerState(mState);
+			mMutated = true;
+		}
+		return this;
+	}
+
+	@Override
+	public ConstantState getConstantState() {
+		return mState;
+	}
+
+	/**
+	 * Usage The shared state of spinners.
+	 *
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	private static class SpinnerState extends ConstantState {
+
+		private Paint mPaint;
+
+		private SpinnerState(int color) {
+			mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+			mPaint.setStyle(Paint.Style.STROKE);
+			mPaint.setStrokeCap(Paint.Cap.ROUND);
+			mPaint.setColor(color);
+		}
+
+		private SpinnerState(SpinnerState state) {
+			mPaint = new Paint(state.mPaint);
+		}
+
+		@Override
+		public Drawable newDrawable() {
+			return new SpinnerDrawable(this);
+		}
+
+		@Override
+		public int getChangingConfigurations() {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.view.View;
+
+/**
+ * Usage An optional contract of the adapter of {@link PullListView}, binds rows in two tiers.<br>
+ * <p>While the list is flinging, rows are shown only for a few frames, so the adapter
+ * binds them cheaply(placeholder images, no rich text...) in getView(). When the fling
+ * was finished, the list calls {@link #bindFull(View, int)} for every visible row only.<br>
+ * 
+ * <p>The adapter set by {@link PullListView#setAdapter(android.widget.ListAdapter)}
+ * which implements this interface is used.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public interface TieredBindAdapter {
+
+	/**
+	 * The list starts or stops flinging, bind rows cheaply in getView() while flinging.
+	 * @param flinging
+	 */
+	public void setFlinging(boolean flinging);
+	
+	/**
+	 * Bind a visible row in full, it may be bound cheaply while flinging.
+	 * @param view the view of row which was returned by getView().
+	 * @param position the position of data in adapter.
+	 */
+	public void bindFull(View view, int position);
+	
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Use: Named sections of system trace(systrace), for the works of pull views.<br>
+ * <p>Sections are written only when it was enabled with {@link #setEnabled(boolean)} and
+ * running on Android 4.3 or higher, otherwise a section costs one boolean check.
+ * Every {@link #beginSection(String)} must be paired with an {@link #endSection(boolean)}
+ * in the same thread, pass it what the begin returned, so a section is ended even if
+ * tracing was disabled between them:<br>
+ * <pre>
+ * final boolean traced = TraceUtil.beginSection(TraceUtil.TOUCH);
+ * try {
+ * 	...
+ * } finally {
+ * 	TraceUtil.endSection(traced);
+ * }
+ * </pre>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class TraceUtil {
+	
+	public static final String TOUCH = "PullView:touch";
+	public static final String UPDATE_HEADER = "PullView:updateHeader";
+	public static final String UPDATE_FOOTER = "PullView:updateFooter";
+	public static final String DRAW_INDICATOR = "PullView:drawIndicator";
+	public static final String DISPATCH_REFRESH = "PullView:onRefresh";
+	public static final String DISPATCH_LOAD_MORE = "PullView:onLoadMore";
+	public static final String REFRESH_COMPLETED = "PullView:refreshCompleted";
+	public static final String LOAD_MORE_COMPLETED = "PullView:loadMoreCompleted";
+	
+	private static volatile boolean sEnabled = false;
+	
+	private TraceUtil() {}
+	
+	/**
+	 * Enable or disable trace sections, disabled is default.
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		sEnabled = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+	}
+	
+	/**
+	 * Whether trace sections are written.
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return sEnabled;
+	}
+	
+	/**
+	 * Begin a section.
+	 * @param name the name of section, use a constant, it is not copied.
+	 * @return whether the section was begun, pass it to {@link #endSection(boolean)}.
+	 */
+	public static boolean beginSection(String name) {
+		if(sEnabled) {
+			TraceApi18.beginSection(name);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * End the last section begun in this thread.
+	 * @param begun returned by {@link #beginSection(String)}.
+	 */
+	public static void endSection(boolean begun) {
+		if(begun) {
+			TraceApi18.endSection();
+		}
+	}
+	
+	/**
+	 * Usage Calls of {@link Trace}, only loaded on Android 4.3 or higher.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static class TraceApi18 {
+		
+		static void beginSection(String name) {
+			Trace.beginSection(name);
+		}
+		
+		static void endSection() {
+			Trace.endSection();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opensource.pullview.utils.DateUtil;
+
+/**
+ * Usage Benchmarks of {@link DateUtil}, it formats the refresh time of header label
+ * every time refreshing was completed.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class DateUtilBenchmark {
+	
+	/** The pattern of R.string.pull_view_date_format. */
+	private static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+	
+	private final long mTime = 1404628200000L;
+	
+	private final String mDate = "2014-07-06 14:30:00";
+	
+	@Benchmark
+	public String getSystemDate() {
+		return DateUtil.getSystemDate(PATTERN);
+	}
+	
+	@Benchmark
+	public String formatDate() {
+		return DateUtil.formatDate(PATTERN, mTime);
+	}
+	
+	@Benchmark
+	public long parseDate() {
+		return DateUtil.parseDate(PATTERN, mDate);
+	}
+	
+	@Benchmark
+	public String changeFormat() {
+		return DateUtil.changeFormat(mDate, PATTERN, "yyyy-MM-dd");
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opensource.pullview.Histogram;
+
+/**
+ * Usage Benchmarks of {@link Histogram}, it records every frame of pulling and every loading.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class HistogramBenchmark {
+	
+	/** The same buckets as the frame times of PullFrameMetrics. */
+	private static final long [] FRAME_TIME_BOUNDS = {
+		4, 8, 12, 16, 20, 24, 33, 50, 67, 100, 150, 250, 500, 1000,
+	};
+	
+	private Histogram mHistogram;
+	
+	private long mValue;
+	
+	@Setup
+	public void setUp() {
+		mHistogram = new Histogram(FRAME_TIME_BOUNDS);
+		for(int i = 0; i < 10000; i++) {
+			mHistogram.record(i % 40);
+		}
+	}
+	
+	@Benchmark
+	public void record() {
+		mHistogram.record(mValue++ & 63);
+	}
+	
+	@Benchmark
+	public long snapshotPercentile() {
+		Histogram.Snapshot snapshot = mHistogram.snapshot();
+		return snapshot.getPercentile(50) + snapshot.getPercentile(90) + snapshot.getPercentile(99);
+	}
+	
+	/**
+	 * Main thread records while a reporting thread reads.
+	 */
+	@Benchmark
+	@Group("recordWhileReading")
+	public void recordInMain() {
+		mHistogram.record(mValue++ & 63);
+	}
+	
+	@Benchmark
+	@Group("recordWhileReading")
+	public long readInBackground() {
+		return mHistogram.getPercentile(99);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opensource.pullview.IPullView;
+import com.opensource.pullview.PullResistance;
+
+/**
+ * Usage Benchmarks of {@link PullResistance}, it is called in every move event of pulling.
+ * Every benchmark pulls through {@link #DRAG_LENGTH} pixels, one pixel per call.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class PullResistanceBenchmark {
+	
+	private static final int DRAG_LENGTH = 1024;
+	
+	/** The height of header view, in pixels. */
+	private static final int HEADER_HEIGHT = 150;
+	
+	private PullResistance mLinear;
+	
+	private PullResistance mDamped;
+	
+	@Setup
+	public void setUp() {
+		mLinear = PullResistance.getDefault();
+		mDamped = PullResistance.createDamped(HEADER_HEIGHT * 2, IPullView.OFFSET_RATIO);
+	}
+	
+	/**
+	 * The integer divide which was used before the resistance table, the baseline.
+	 */
+	@Benchmark
+	public void offsetDivide(Blackhole bh) {
+		for(int distance = 0; distance < DRAG_LENGTH; distance++) {
+			bh.consume(distance / IPullView.OFFSET_RATIO);
+		}
+	}
+	
+	@Benchmark
+	public void offsetLinear(Blackhole bh) {
+		for(int distance = 0; distance < DRAG_LENGTH; distance++) {
+			bh.consume(mLinear.getOffset(distance));
+		}
+	}
+	
+	@Benchmark
+	public void offsetDamped(Blackhole bh) {
+		for(int distance = 0; distance < DRAG_LENGTH; distance++) {
+			bh.consume(mDamped.getOffset(distance));
+		}
+	}
+	
+	@Benchmark
+	public void distanceDamped(Blackhole bh) {
+		for(int offset = 0; offset < DRAG_LENGTH; offset++) {
+			bh.consume(mDamped.getDistance(offset));
+		}
+	}
+	
+	@Benchmark
+	public void slopeDamped(Blackhole bh) {
+		for(int distance = 0; distance < DRAG_LENGTH; distance++) {
+			bh.consume(mDamped.getSlope(distance));
+		}
+	}
+	
+	@Benchmark
+	public PullResistance createDamped() {
+		return PullResistance.createDamped(HEADER_HEIGHT * 2, IPullView.OFFSET_RATIO);
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Generates the R class of PullView library from ../PullView/res, as aapt would do for
+ * a library project. Robolectric reads the resource ids from this class and the values
+ * from the res directory, so the ids only have to be unique in their type.
+ */
+import groovy.xml.XmlSlurper
+
+def res = new File(project.properties['library.dir'], 'res')
+def out = new File(project.properties['generated.r.dir'], 'com/opensource/pullview/R.java')
+def types = new TreeMap<String, TreeSet<String>>()
+def add = { type, name -> types.computeIfAbsent(type) { new TreeSet<String>() } << name.replace('.', '_') }
+
+res.eachDir { dir ->
+	def type = dir.name.split('-')[0]
+	dir.eachFile { file ->
+		if (type == 'values') {
+			new XmlSlurper().parse(file).children().each { node ->
+				def tag = node.name()
+				if (tag == 'item') {
+					tag = node.@type.text()
+				} else if (tag.endsWith('-array')) {
+					tag = 'array'
+				}
+				add(tag, node.@name.text())
+			}
+		} else {
+			add(type, file.name.replaceFirst(/\..*$/, ''))
+			if (file.name.endsWith('.xml')) {
+				(file.text =~ /@\+id\/(\w+)/).each { add('id', it[1]) }
+			}
+		}
+	}
+}
+
+out.parentFile.mkdirs()
+out.withWriter('UTF-8') { w ->
+	w << 'package com.opensource.pullview;\n\npublic final class R {\n'
+	types.eachWithIndex { type, names, i ->
+		w << "\tpublic static final class ${type} {\n"
+		names.eachWithIndex { name, j ->
+			w << "\t\tpublic static final int ${name} = 0x7f${String.format('%02x', i + 1)}${String.format('%04x', j)};\n"
+		}
+		w << '\t}\n'
+	}
+	w << '}\n'
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.app.Activity;
+import android.widget.ArrayAdapter;
+import android.widget.GridView;
+
+/**
+ * Usage Plays a scripted scroll on a {@link BaseGridView}, asserts the grid scrolled and 
+ * upper bounds of the work the grid view costs.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class BaseGridViewTest {
+	
+	private BaseGridView mGridView;
+	
+	private CountingListAdapter mAdapter;
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		final Activity activity = Robolectric.setupActivity(Activity.class);
+		final String [] items = new String[120];
+		for(int i = 0; i < items.length; i++) {
+			items[i] = "Item " + i;
+		}
+		mAdapter = new CountingListAdapter(new ArrayAdapter<String>(activity, 
+				android.R.layout.simple_list_item_1, items));
+		mGridView = new BaseGridView(activity, null);
+		mGridView.getGridView().setNumColumns(3);
+		mGridView.getGridView().setAdapter(mAdapter);
+		PullViewTestSupport.setContentView(activity, mGridView);
+		
+		//Warm up, so the first gesture of a test does not pay for loading classes.
+		PullViewTestSupport.play(GestureScript.pullUp(mGridView, 200, 500), mGridView, mGridView.getCounters());
+		mGridView.getGridView().setSelection(0);
+		PullViewTestSupport.idle();
+		mAdapter.resetBinds();
+	}
+	
+	@Test
+	public void scrollDoesNotLayoutContainer() {
+		final GridView grid = mGridView.getGridView();
+		final int rows = grid.getChildCount() / grid.getNumColumns();
+		final GestureScript script = GestureScript.pullUp(mGridView, 400, 800);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mGridView, mGridView.getCounters());
+		
+		assertTrue(report.toString(), grid.getFirstVisiblePosition() > 0);
+		//Scrolling the grid lays out its rows only, the header and footer around it stay.
+		final PullViewCounters counters = report.getCounters();
+		assertEquals(report.toString(), 0, counters.getRequestLayouts());
+		assertEquals(report.toString(), 0, counters.getLayouts());
+		//Rows scrolled in are bound once, the ones still visible are not bound again.
+		final int scrolledRows = grid.getFirstVisiblePosition() / grid.getNumColumns() + rows;
+		assertTrue(report + ", binds=" + mAdapter.getBinds(), 
+				mAdapter.getBinds() <= scrolledRows * grid.getNumColumns());
+	}
+}
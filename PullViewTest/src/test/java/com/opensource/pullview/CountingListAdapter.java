@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+
+/**
+ * Usage A list adapter wraps another one, counts the rows it binds.<br>
+ * <p>All other calls are passed to the wrapped adapter, and {@link TieredBindAdapter} calls are
+ * passed too if the wrapped adapter implements it. Set it to the list instead of the wrapped one:<br>
+ * <pre>
+ * listView.setAdapter(new CountingListAdapter(adapter));
+ * </pre>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class CountingListAdapter implements ListAdapter, TieredBindAdapter {
+	
+	private final ListAdapter mAdapter;
+	
+	private long mBinds;
+	
+	public CountingListAdapter(ListAdapter adapter) {
+		if(null == adapter) {
+			throw new IllegalArgumentException("Adapter can not be null");
+		}
+		this.mAdapter = adapter;
+	}
+	
+	/**
+	 * Get the count of rows bound.
+	 * @return
+	 */
+	public long getBinds() {
+		return mBinds;
+	}
+	
+	/**
+	 * Clear the count of rows bound.
+	 */
+	public void resetBinds() {
+		mBinds = 0;
+	}
+	
+	/**
+	 * Get the wrapped adapter.
+	 * @return
+	 */
+	public ListAdapter getWrappedAdapter() {
+		return mAdapter;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		mBinds++;
+		return mAdapter.getView(position, convertView, parent);
+	}
+
+	@Override
+	public int getCount() {
+		return mAdapter.getCount();
+	}
+
+	@Override
+	public Object getItem(int position) {
+		return mAdapter.getItem(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return mAdapter.getItemId(position);
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return mAdapter.hasStableIds();
+	}
+
+	@Override
+	public int getItemViewType(int position) {
+		return mAdapter.getItemViewType(position);
+	}
+
+	@Override
+	public int getViewTypeCount() {
+		return mAdapter.getViewTypeCount();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return mAdapter.isEmpty();
+	}
+
+	@Override
+	public boolean areAllItemsEnabled() {
+		return mAdapter.areAllItemsEnabled();
+	}
+
+	@Override
+	public boolean isEnabled(int position) {
+		return mAdapter.isEnabled(position);
+	}
+
+	@Override
+	public void registerDataSetObserver(DataSetObserver observer) {
+		mAdapter.registerDataSetObserver(observer);
+	}
+
+	@Override
+	public void unregisterDataSetObserver(DataSetObserver observer) {
+		mAdapter.unregisterDataSetObserver(observer);
+	}
+
+	@Override
+	public void setFlinging(boolean flinging) {
+		if(mAdapter instanceof TieredBindAdapter) {
+			((TieredBindAdapter) mAdapter).setFlinging(flinging);
+		}
+	}
+
+	@Override
+	public void bindFull(View view, int position) {
+		if(mAdapter instanceof TieredBindAdapter) {
+			((TieredBindAdapter) mAdapter).bindFull(view, position);
+		}
+	}
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Usage A script of touch events, replays a gesture on a pull view and reports what it cost.<br>
+ * <p>Build a script with {@link #down(long, float, float)}, {@link #move(long, float, float)},
+ * {@link #up(long, float, float)} and {@link #cancel(long, float, float)}, or use one of the
+ * scripts of common gestures: {@link #slowPull(View, int, long)}, {@link #fastFlick(View, int)},
+ * {@link #pullAndCancel(View, int)} and {@link #pullUp(View, int, long)}, or replay a recorded
+ * trace with {@link #fromTrace(GestureTrace)}. The same script always sends the same events,
+ * so the costs of two versions of the view can be compared.<br>
+ * 
+ * <p>A {@link Report} has the changes of the {@link PullViewCounters} of the view and the
+ * bytes allocated by the playing thread, so a test can assert upper bounds of them:<br>
+ * <pre>
+ * GestureScript.Report report = GestureScript.slowPull(listView, 600, 800)
+ * 		.playNow(listView, listView.getCounters());
+ * assertTrue(report.getCounters().getIndicatorTextUpdates() &lt;= 4);
+ * </pre>
+ * Allocations are counted by the thread MXBean of the JVM, JVMs which don't count them
+ * always report 0.
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+public class GestureScript {
+	
+	/** The time between two move events, in milliseconds. */
+	public static final long MOVE_INTERVAL = 16;
+	
+	/** The time to wait after the last event, so the view can settle before reporting. */
+	public static final long DEFAULT_SETTLE_TIME = 500;
+	
+	private final ArrayList<Step> mSteps = new ArrayList<Step>();
+	
+	private long mSettleTime = DEFAULT_SETTLE_TIME;
+	
+	/**
+	 * Usage The callback of playing a script.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static interface Callback {
+		
+		/**
+		 * The script was played and the view had settled, called in main thread.
+		 * @param report
+		 */
+		public void onPlayed(Report report);
+	}
+	
+	/**
+	 * Usage The cost of playing a script.
+	 * 
+	 * @author yinglovezhuzhu@gmail.com
+	 */
+	public static class Report {
+		
+		private final PullViewCounters mCounters;
+		
+		private final long mAllocatedBytes;
+		
+		private final long mDuration;
+		
+		Report(PullViewCounters counters, long allocatedBytes, long duration) {
+			this.mCounters = counters;
+			this.mAllocatedBytes = allocatedBytes;
+			this.mDuration = duration;
+		}
+		
+		/**
+		 * Get the changes of counters while playing.
+		 * @return
+		 */
+		public PullViewCounters getCounters() {
+			return mCounters;
+		}
+		
+		/**
+		 * Get the bytes allocated in main thread while playing.
+		 * @return
+		 */
+		public long getAllocatedBytes() {
+			return mAllocatedBytes;
+		}
+		
+		/**
+		 * Get the time of playing, in milliseconds.
+		 * @return
+		 */
+		public long getDuration() {
+			return mDuration;
+		}
+		
+		@Override
+		public String toString() {
+			return mCounters + ", allocatedBytes=" + mAllocatedBytes
+					+ ", duration=" + mDuration + "ms";
+		}
+	}
+	
+	/**
+	 * A touch event of the script.
+	 */
+	private static class Step {
+		final long time;
+		final int action;
+		final float x;
+		final float y;
+		
+		Step(long time, int action, float x, float y) {
+			this.time = time;
+			this.action = action;
+			this.x = x;
+			this.y = y;
+		}
+	}
+	
+	/**
+	 * A script which pulls down slowly from the top of view, and releases.
+	 * @param view
+	 * @param distance the sliding distance of finger, in pixels.
+	 * @param duration the time of pulling, in milliseconds.
+	 * @return
+	 */
+	public static GestureScript slowPull(View view, int distance, long duration) {
+		final float x = view.getWidth() / 2f;
+		final float y = view.getHeight() / 4f;
+		return new GestureScript().down(0, x, y).moveTo(0, x, y, duration, x, y + distance)
+				.up(duration + MOVE_INTERVAL, x, y + distance);
+	}
+	
+	/**
+	 * A script which flicks down fast from the top of view in 100 milliseconds.
+	 * @param view
+	 * @param distance the sliding distance of finger, in pixels.
+	 * @return
+	 */
+	public static GestureScript fastFlick(View view, int distance) {
+		final float x = view.getWidth() / 2f;
+		final float y = view.getHeight() / 4f;
+		return new GestureScript().down(0, x, y).moveTo(0, x, y, 100, x, y + distance)
+				.up(100, x, y + distance);
+	}
+	
+	/**
+	 * A script which pulls down, pulls back to the start and releases, it should not load.
+	 * @param view
+	 * @param distance the sliding distance of finger, in pixels.
+	 * @return
+	 */
+	public static GestureScript pullAndCancel(View view, int distance) {
+		final float x = view.getWidth() / 2f;
+		final float y = view.getHeight() / 4f;
+		return new GestureScript().down(0, x, y).moveTo(0, x, y, 500, x, y + distance)
+				.moveTo(500, x, y + distance, 1000, x, y).up(1000 + MOVE_INTERVAL, x, y);
+	}
+	
+	/**
+	 * A script which pulls up from the bottom of view and releases, it loads more at the end of list.
+	 * @param view
+	 * @param distance the sliding distance of finger, in pixels.
+	 * @param duration the time of pulling, in milliseconds.
+	 * @return
+	 */
+	public static GestureScript pullUp(View view, int distance, long duration) {
+		final float x = view.getWidth() / 2f;
+		final float y = view.getHeight() * 3 / 4f;
+		return new GestureScript().down(0, x, y).moveTo(0, x, y, duration, x, y - distance)
+				.up(duration + MOVE_INTERVAL, x, y - distance);
+	}
+	
+	/**
+	 * A script which replays the touch events of a recorded trace, with the same positions and time.
+	 * Touch events of other pointers were not recorded, so they are not replayed.
+	 * @param trace
+	 * @return
+	 */
+	public static GestureScript fromTrace(GestureTrace trace) {
+		final GestureScript script = new GestureScript();
+		for(int i = 0; i < trace.getCount(); i++) {
+			if(!trace.isTouch(i)) {
+				continue;
+			}
+			switch (trace.getValue(i)) {
+			case MotionEvent.ACTION_DOWN:
+			case MotionEvent.ACTION_MOVE:
+			case MotionEvent.ACTION_UP:
+			case MotionEvent.ACTION_CANCEL:
+				script.add(trace.getTime(i), trace.getValue(i), trace.getX(i), trace.getY(i));
+				break;
+			default:
+				break;
+			}
+		}
+		return script;
+	}
+	
+	/**
+	 * Add a down event.
+	 * @param time the time since the start of script, in milliseconds.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public GestureScript down(long time, float x, float y) {
+		return add(time, MotionEvent.ACTION_DOWN, x, y);
+	}
+	
+	/**
+	 * Add a move event.
+	 * @param time the time since the start of script, in milliseconds.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public GestureScript move(long time, float x, float y) {
+		return add(time, MotionEvent.ACTION_MOVE, x, y);
+	}
+	
+	/**
+	 * Add move events every {@link #MOVE_INTERVAL} milliseconds, from a point to another one in a line.
+	 * @param fromTime
+	 * @param fromX
+	 * @param fromY
+	 * @param toTime
+	 * @param toX
+	 * @param toY
+	 * @return
+	 */
+	public GestureScript moveTo(long fromTime, float fromX, float fromY, long toTime, float toX, float toY) {
+		final long duration = toTime - fromTime;
+		for(long time = MOVE_INTERVAL; time < duration; time += MOVE_INTERVAL) {
+			final float fraction = (float) time / duration;
+			move(fromTime + time, fromX + (toX - fromX) * fraction, fromY + (toY - fromY) * fraction);
+		}
+		return move(toTime, toX, toY);
+	}
+	
+	/**
+	 * Add an up event.
+	 * @param time the time since the start of script, in milliseconds.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public GestureScript up(long time, float x, float y) {
+		return add(time, MotionEvent.ACTION_UP, x, y);
+	}
+	
+	/**
+	 * Add a cancel event.
+	 * @param time the time since the start of script, in milliseconds.
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public GestureScript cancel(long time, float x, float y) {
+		return add(time, MotionEvent.ACTION_CANCEL, x, y);
+	}
+	
+	/**
+	 * Set the time to wait after the last event before reporting, 
+	 * default is {@link #DEFAULT_SETTLE_TIME}.
+	 * @param settleTime in milliseconds.
+	 * @return
+	 */
+	public GestureScript setSettleTime(long settleTime) {
+		if(settleTime < 0) {
+			throw new IllegalArgumentException("Settle time can not be negative");
+		}
+		this.mSettleTime = settleTime;
+		return this;
+	}
+	
+	/**
+	 * Get the count of events of the script.
+	 * @return
+	 */
+	public int getEventCount() {
+		return mSteps.size();
+	}
+	
+	/**
+	 * Play the script in real time, every event is sent at its time,
+	 * must be called in main thread.
+	 * @param view the view to touch.
+	 * @param counters the counters of view, got by getCounters() of the view.
+	 * @param callback called after the view had settled.
+	 */
+	public void play(final View view, final PullViewCounters counters, final Callback callback) {
+		checkMainThread();
+		final Handler handler = new Handler();
+		final PullViewCounters start = new PullViewCounters();
+		start.set(counters);
+		final long downTime = SystemClock.uptimeMillis();
+		final long startBytes = getAllocatedBytes();
+		for(int i = 0; i < mSteps.size(); i++) {
+			final Step step = mSteps.get(i);
+			handler.postAtTime(new Runnable() {
+				
+				@Override
+				public void run() {
+					dispatch(view, step, downTime);
+				}
+			}, downTime + step.time);
+		}
+		final long end = mSteps.isEmpty() ? 0 : mSteps.get(mSteps.size() - 1).time;
+		handler.postAtTime(new Runnable() {
+			
+			@Override
+			public void run() {
+				final Report report = createReport(start, counters, startBytes, SystemClock.uptimeMillis() - downTime);
+				if(null != callback) {
+					callback.onPlayed(report);
+				}
+			}
+		}, downTime + end + mSettleTime);
+	}
+	
+	/**
+	 * Send all events of the script at once with their own event time, and report without 
+	 * waiting for the view to settle, must be called in main thread.<br>
+	 * <p>Velocity of the gesture is still right, as it comes from event time. 
+	 * @param view the view to touch.
+	 * @param counters the counters of view, got by getCounters() of the view.
+	 * @return
+	 */
+	public Report playNow(View view, PullViewCounters counters) {
+		checkMainThread();
+		final PullViewCounters start = new PullViewCounters();
+		start.set(counters);
+		final long downTime = SystemClock.uptimeMillis();
+		final long startBytes = getAllocatedBytes();
+		for(int i = 0; i < mSteps.size(); i++) {
+			dispatch(view, mSteps.get(i), downTime);
+		}
+		return createReport(start, counters, startBytes, SystemClock.uptimeMillis() - downTime);
+	}
+	
+	private GestureScript add(long time, int action, float x, float y) {
+		if(!mSteps.isEmpty() && time < mSteps.get(mSteps.size() - 1).time) {
+			throw new IllegalArgumentException("Time of events must not decrease");
+		}
+		mSteps.add(new Step(time, action, x, y));
+		return this;
+	}
+	
+	private static void dispatch(View view, Step step, long downTime) {
+		final MotionEvent event = MotionEvent.obtain(downTime, downTime + step.time, step.action, step.x, step.y, 0);
+		view.dispatchTouchEvent(event);
+		event.recycle();
+	}
+	
+	private static void checkMainThread() {
+		if(Looper.myLooper() != Looper.getMainLooper()) {
+			throw new IllegalStateException("Gesture script must be played in main thread");
+		}
+	}
+	
+	private static long getAllocatedBytes() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+	
+	private static Report createReport(PullViewCounters start, PullViewCounters end, long startBytes, long duration) {
+		final long allocatedBytes = getAllocatedBytes() - startBytes;
+		final PullViewCounters delta = new PullViewCounters();
+		delta.mRequestLayouts = end.mRequestLayouts - start.mRequestLayouts;
+		delta.mMeasures = end.mMeasures - start.mMeasures;
+		delta.mLayouts = end.mLayouts - start.mLayouts;
+		delta.mIndicatorTextUpdates = end.mIndicatorTextUpdates - start.mIndicatorTextUpdates;
+		delta.mIndicatorDraws = end.mIndicatorDraws - start.mIndicatorDraws;
+		delta.mDispatches = end.mDispatches - start.mDispatches;
+		delta.mDispatchTime = end.mDispatchTime - start.mDispatchTime;
+		return new Report(delta, allocatedBytes, duration);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import android.app.Activity;
+import android.widget.ArrayAdapter;
+
+/**
+ * Usage Records a gesture with {@link GestureTrace.Recorder}, saves and loads it, and checks
+ * the replays by GestureScript and {@link GestureTrace.Player} send the same events and go the same way.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class GestureTraceTest {
+	
+	private PullListView mListView;
+	
+	private int mRefreshes;
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		final Activity activity = Robolectric.setupActivity(Activity.class);
+		final String [] items = new String[50];
+		for(int i = 0; i < items.length; i++) {
+			items[i] = "Item " + i;
+		}
+		mListView = new PullListView(activity);
+		mListView.setAdapter(new ArrayAdapter<String>(activity, android.R.layout.simple_list_item_1, items));
+		mListView.setOnRefreshListener(new OnRefreshListener() {
+			
+			@Override
+			public void onRefresh() {
+				mRefreshes++;
+			}
+		});
+		PullViewTestSupport.setContentView(activity, mListView);
+	}
+	
+	@Test
+	public void replayOfSavedTraceSendsSameEvents() throws IOException {
+		final GestureTrace.Recorder recorder = new GestureTrace.Recorder();
+		mListView.setGestureRecorder(recorder);
+		final GestureScript script = GestureScript.slowPull(mListView, 600, 800);
+		PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		mListView.setGestureRecorder(null);
+		assertEquals(1, mRefreshes);
+		assertFalse(recorder.isOverflowed());
+		
+		final GestureTrace trace = recorder.getTrace();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		trace.writeTo(out);
+		final GestureTrace loaded = GestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(trace.getCount(), loaded.getCount());
+		assertEquals(trace.getDuration(), loaded.getDuration());
+		assertArrayEquals(trace.getScrollStates(), loaded.getScrollStates());
+		
+		final GestureScript replay = GestureScript.fromTrace(loaded);
+		assertEquals(script.getEventCount(), replay.getEventCount());
+		
+		mListView.refreshCompleted();
+		PullViewTestSupport.idle();
+		PullViewTestSupport.play(replay, mListView, mListView.getCounters());
+		assertEquals(2, mRefreshes);
+	}
+	
+	@Test
+	public void playerReplaysTraceWithRecordedTime() {
+		final GestureTrace.Recorder recorder = new GestureTrace.Recorder();
+		mListView.setGestureRecorder(recorder);
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		final GestureTrace trace = recorder.getTrace();
+		recorder.clear();
+		mListView.refreshCompleted();
+		PullViewTestSupport.idle();
+		
+		final int [] played = new int[1];
+		final GestureTrace.Player player = new GestureTrace.Player(trace, mListView);
+		player.setOnPlayedListener(new GestureTrace.Player.OnPlayedListener() {
+			
+			@Override
+			public void onPlayed(GestureTrace playedTrace) {
+				played[0]++;
+			}
+		});
+		player.start();
+		//Half way, the finger is still down.
+		ShadowLooper.idleMainLooper(trace.getDuration() / 2);
+		assertTrue(player.isPlaying());
+		assertEquals(1, mRefreshes);
+		PullViewTestSupport.idle();
+		mListView.setGestureRecorder(null);
+		
+		assertFalse(player.isPlaying());
+		assertEquals(1, played[0]);
+		assertEquals(2, mRefreshes);
+		//The view got the same events at the same times.
+		final GestureTrace replayed = recorder.getTrace();
+		assertEquals(trace.getCount(), replayed.getCount());
+		for(int i = 0; i < trace.getCount(); i++) {
+			assertEquals(trace.getTime(i), replayed.getTime(i));
+			assertEquals(trace.getValue(i), replayed.getValue(i));
+			assertEquals(trace.getY(i), replayed.getY(i), 0f);
+		}
+	}
+	
+	@Test
+	public void stoppedPlayerCancelsGesture() {
+		final GestureTrace.Recorder recorder = new GestureTrace.Recorder();
+		mListView.setGestureRecorder(recorder);
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		mListView.setGestureRecorder(null);
+		mListView.refreshCompleted();
+		PullViewTestSupport.idle();
+		
+		final GestureTrace.Player player = new GestureTrace.Player(recorder.getTrace(), mListView);
+		player.start();
+		ShadowLooper.idleMainLooper(recorder.getTrace().getDuration() / 2);
+		player.stop();
+		PullViewTestSupport.idle();
+		
+		//The pull was cancelled, it did not refresh, and the next pull refreshes as usual.
+		assertFalse(player.isPlaying());
+		assertEquals(1, mRefreshes);
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		assertEquals(2, mRefreshes);
+	}
+}
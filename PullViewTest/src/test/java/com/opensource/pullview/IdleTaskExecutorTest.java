@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Usage Checks {@link IdleTaskExecutor} keeps running its queue after a task threw.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class IdleTaskExecutorTest {
+	
+	private IdleTaskExecutor mExecutor;
+	
+	private int mRuns;
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		mExecutor = new IdleTaskExecutor();
+	}
+	
+	@Test
+	public void throwingTaskDoesNotStallQueue() {
+		mExecutor.execute(new Runnable() {
+			
+			@Override
+			public void run() {
+				throw new IllegalStateException("Task failed");
+			}
+		});
+		mExecutor.execute(new Runnable() {
+			
+			@Override
+			public void run() {
+				mRuns++;
+			}
+		});
+		try {
+			PullViewTestSupport.idle();
+			fail("The exception of task was swallowed");
+		} catch (IllegalStateException e) {
+			//Thrown to the looper as any posted task.
+		}
+		PullViewTestSupport.idle();
+		
+		assertEquals(1, mRuns);
+		assertEquals(0, mExecutor.getPendingCount());
+	}
+}
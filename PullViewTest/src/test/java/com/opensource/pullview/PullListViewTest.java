@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+
+/**
+ * Usage Plays the scripted gestures on a {@link PullListView}, asserts what they load and
+ * upper bounds of the work and allocations they cost.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class PullListViewTest {
+	
+	private PullListView mListView;
+	
+	private CountingListAdapter mAdapter;
+	
+	private ListView mBaseline;
+	
+	private int mRefreshes;
+	
+	private int mLoadMores;
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		final Activity activity = Robolectric.setupActivity(Activity.class);
+		final String [] items = new String[50];
+		for(int i = 0; i < items.length; i++) {
+			items[i] = "Item " + i;
+		}
+		mAdapter = new CountingListAdapter(new ArrayAdapter<String>(activity, 
+				android.R.layout.simple_list_item_1, items));
+		mListView = new PullListView(activity);
+		mListView.setAdapter(mAdapter);
+		mListView.setOnRefreshListener(new OnRefreshListener() {
+			
+			@Override
+			public void onRefresh() {
+				mRefreshes++;
+			}
+		});
+		mListView.setOnLoadMoreListener(new OnLoadMoreListener() {
+			
+			@Override
+			public void onLoadMore() {
+				mLoadMores++;
+			}
+		});
+		mListView.setLoadMode(PullListView.LoadMode.PULL_TO_LOAD);
+		PullViewTestSupport.setContentView(activity, mListView);
+		
+		//Warm up, so the first gesture of a test does not pay for loading classes.
+		PullViewTestSupport.play(GestureScript.pullAndCancel(mListView, 600), mListView, mListView.getCounters());
+		mAdapter.resetBinds();
+		mListView.getLoadMetrics().reset();
+		
+		//The list which the pull list extends, allocations of pull list are measured against it.
+		final Activity baselineActivity = Robolectric.setupActivity(Activity.class);
+		mBaseline = new ListView(baselineActivity);
+		mBaseline.setAdapter(new ArrayAdapter<String>(baselineActivity, 
+				android.R.layout.simple_list_item_1, items));
+		PullViewTestSupport.setContentView(baselineActivity, mBaseline);
+		PullViewTestSupport.play(GestureScript.pullAndCancel(mBaseline, 600), mBaseline, new PullViewCounters());
+	}
+	
+	@Test
+	public void slowPullRefreshesOnce() {
+		final GestureScript script = GestureScript.slowPull(mListView, 600, 800);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		
+		assertEquals(1, mRefreshes);
+		assertEquals(1, report.getCounters().getDispatches());
+		assertCostBounded(report);
+		//Rows pushed out by the header come back once when it hides, no row is bound twice.
+		assertTrue(report.toString(), mAdapter.getBinds() <= mListView.getChildCount());
+	}
+	
+	@Test
+	public void fastFlickRefreshes() {
+		final GestureScript script = GestureScript.fastFlick(mListView, 200);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		
+		assertEquals(1, mRefreshes);
+		assertEquals(1, report.getCounters().getDispatches());
+		assertCostBounded(report);
+	}
+	
+	@Test
+	public void pullAndCancelDoesNotRefresh() {
+		final GestureScript script = GestureScript.pullAndCancel(mListView, 600);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(0, report.getCounters().getDispatches());
+		assertEquals(1, mListView.getLoadMetrics().getAbortedPullCount());
+		assertCostBounded(report);
+	}
+	
+	@Test
+	public void cancelEventDropsPull() {
+		final float x = mListView.getWidth() / 2f;
+		final float y = mListView.getHeight() / 4f;
+		final GestureScript script = new GestureScript().down(0, x, y).moveTo(0, x, y, 800, x, y + 600)
+				.cancel(800 + GestureScript.MOVE_INTERVAL, x, y + 600);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(1, mListView.getLoadMetrics().getAbortedPullCount());
+		assertCostBounded(report);
+		
+		//The pull was dropped, so the next one refreshes as usual.
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		assertEquals(1, mRefreshes);
+	}
+	
+	@Test
+	public void pullUpLoadsMoreAtEnd() {
+		mListView.setSelection(mAdapter.getCount() - 1);
+		PullViewTestSupport.idle();
+		PullViewTestSupport.dispatchScroll(mListView);
+		mAdapter.resetBinds();
+		final GestureScript script = GestureScript.pullUp(mListView, 400, 500);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(1, mLoadMores);
+		assertCostBounded(report);
+	}
+	
+	@Test
+	public void autoLoadLoadsMoreOnceAtEnd() {
+		mListView.setLoadMode(PullListView.LoadMode.AUTO_LOAD);
+		mListView.setSelection(mAdapter.getCount() - 1);
+		PullViewTestSupport.idle();
+		PullViewTestSupport.dispatchScroll(mListView);
+		final GestureScript script = GestureScript.pullUp(mListView, 400, 500);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		//The list stopped at the end, it loads more without pulling.
+		PullViewTestSupport.dispatchScroll(mListView);
+		PullViewTestSupport.dispatchScrollState(mListView, AbsListView.OnScrollListener.SCROLL_STATE_IDLE);
+		PullViewTestSupport.idle();
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(1, mLoadMores);
+		assertCostBounded(report);
+		
+		//Still loading, stopping at the end again does not load twice.
+		PullViewTestSupport.dispatchScrollState(mListView, AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
+		PullViewTestSupport.dispatchScrollState(mListView, AbsListView.OnScrollListener.SCROLL_STATE_IDLE);
+		assertEquals(1, mLoadMores);
+		
+		//Loaded and the footer hid, dragging to the end again loads the next page.
+		mListView.loadMoreCompleted(true);
+		PullViewTestSupport.idle();
+		PullViewTestSupport.play(script, mListView, mListView.getCounters());
+		PullViewTestSupport.dispatchScroll(mListView);
+		PullViewTestSupport.dispatchScrollState(mListView, AbsListView.OnScrollListener.SCROLL_STATE_IDLE);
+		assertEquals(2, mLoadMores);
+	}
+	
+	@Test
+	public void touchEventsAllocateLittleMoreThanListView() {
+		assertAllocationBounded(GestureScript.slowPull(mListView, 600, 800));
+		assertAllocationBounded(GestureScript.fastFlick(mListView, 200));
+		assertAllocationBounded(GestureScript.pullAndCancel(mListView, 600));
+	}
+	
+	@Test
+	public void loadingFramesAreSteppedByIndicatorDraws() {
+		final PullFrameMetrics metrics = mListView.getFrameMetrics();
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		
+		//Settled and still refreshing, no callback is posted in every frame, Robolectric draws nothing.
+		assertEquals(1, mRefreshes);
+		assertEquals(PullFrameMetrics.PHASE_LOADING, metrics.getPhase());
+		assertTrue(metrics.getFrameTimes(PullFrameMetrics.PHASE_SETTLE).getCount() > 0);
+		assertEquals(0, metrics.getFrameTimes(PullFrameMetrics.PHASE_LOADING).getCount());
+		
+		//Every draw of the spinning indicator after the first one is a frame, the draw of view
+		//in Robolectric draws the background only, so draw the indicator itself.
+		final PullIndicatorView indicator = ((PullHeaderView) mListView.getChildAt(0)).getIndicatorView();
+		final Canvas canvas = new Canvas(Bitmap.createBitmap(PullViewTestSupport.WIDTH, 
+				Math.max(1, indicator.getHeight()), Bitmap.Config.ARGB_8888));
+		for(int i = 0; i < 3; i++) {
+			indicator.onDraw(canvas);
+		}
+		assertEquals(2, metrics.getFrameTimes(PullFrameMetrics.PHASE_LOADING).getCount());
+		
+		mListView.refreshCompleted();
+		PullViewTestSupport.idle();
+		assertEquals(PullFrameMetrics.PHASE_NONE, metrics.getPhase());
+	}
+	
+	@Test
+	public void detachEndsWorkAndAttachRestoresIt() {
+		final PullFrameMetrics metrics = mListView.getFrameMetrics();
+		final IdleTaskExecutor executor = mListView.getIdleExecutor();
+		final int [] ran = new int[1];
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		final PullHeaderView header = (PullHeaderView) mListView.getChildAt(0);
+		mListView.refreshCompleted();
+		executor.execute(new Runnable() {
+			
+			@Override
+			public void run() {
+				ran[0]++;
+			}
+		});
+		
+		//Detached while the header settles and a task waits, nothing of them is left to run.
+		final Activity activity = (Activity) mListView.getContext();
+		PullViewTestSupport.setContentView(activity, new View(activity));
+		assertEquals(-(header.getViewHeight() + mListView.getDividerHeight()), header.getPaddingTop());
+		assertEquals(PullFrameMetrics.PHASE_NONE, metrics.getPhase());
+		assertEquals(0, ran[0]);
+		assertEquals(1, executor.getPendingCount());
+		
+		//Attached again, the task runs and the listeners which were kept refresh as usual.
+		PullViewTestSupport.setContentView(activity, mListView);
+		assertEquals(1, ran[0]);
+		PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+		assertEquals(2, mRefreshes);
+	}
+	
+	@Test
+	public void throwingListenerEndsWatchdog() {
+		final int [] exceeded = new int[1];
+		//The sampler thread of watchdog does not loop in Robolectric, sample on the paused main looper.
+		ReflectionHelpers.setStaticField(DispatchWatchdog.class, "sSampler", new Handler(Looper.getMainLooper()));
+		DispatchWatchdog.setEnabled(true);
+		DispatchWatchdog.setBudget(1);
+		DispatchWatchdog.setFailOnExceeded(true);
+		DispatchWatchdog.setOnBudgetExceededListener(new DispatchWatchdog.OnBudgetExceededListener() {
+			
+			@Override
+			public void onBudgetExceeded(DispatchWatchdog.BudgetExceededException e) {
+				exceeded[0]++;
+			}
+		});
+		mListView.setOnRefreshListener(new OnRefreshListener() {
+			
+			@Override
+			public void onRefresh() {
+				SystemClock.sleep(10);
+				throw new IllegalStateException("Refresh failed");
+			}
+		});
+		try {
+			PullViewTestSupport.play(GestureScript.slowPull(mListView, 600, 800), mListView, mListView.getCounters());
+			fail("The exception of listener was swallowed");
+		} catch (IllegalStateException e) {
+			//Thrown to the gesture as before, not masked by the exceeded budget.
+			assertEquals("Refresh failed", e.getMessage());
+		} finally {
+			DispatchWatchdog.setFailOnExceeded(false);
+			DispatchWatchdog.setOnBudgetExceededListener(null);
+			DispatchWatchdog.setBudget(DispatchWatchdog.DEFAULT_BUDGET);
+			DispatchWatchdog.setEnabled(false);
+			ReflectionHelpers.setStaticField(DispatchWatchdog.class, "sSampler", null);
+		}
+		
+		//The slow dispatch was still timed and reported.
+		assertEquals(1, exceeded[0]);
+	}
+	
+	private void assertAllocationBounded(GestureScript script) {
+		final long extraBytes = PullViewTestSupport.getExtraAllocatedBytes(script, 
+				mListView, mListView.getCounters(), mBaseline, new Runnable() {
+			
+			@Override
+			public void run() {
+				mListView.refreshCompleted();
+			}
+		});
+		assertTrue("extraAllocatedBytes=" + extraBytes + " of " + script.getEventCount() + " events", 
+				extraBytes <= PullViewTestSupport.MAX_EXTRA_ALLOCATED_BYTES_PER_GESTURE 
+				+ PullViewTestSupport.MAX_EXTRA_ALLOCATED_BYTES_PER_EVENT * script.getEventCount());
+	}
+	
+	private static void assertCostBounded(GestureScript.Report report) {
+		final PullViewCounters counters = report.getCounters();
+		final long frames = report.getDuration() / GestureScript.MOVE_INTERVAL + 1;
+		assertTrue(report.toString(), counters.getIndicatorTextUpdates() <= 4);
+		assertTrue(report.toString(), counters.getRequestLayouts() <= 2 * frames);
+		assertTrue(report.toString(), counters.getMeasures() <= frames);
+		assertTrue(report.toString(), counters.getLayouts() <= frames);
+	}
+}
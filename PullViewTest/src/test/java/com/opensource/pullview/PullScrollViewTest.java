@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+/**
+ * Usage Plays the scripted gestures on a {@link PullScrollView}, asserts what they load and
+ * upper bounds of the work and allocations they cost.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class PullScrollViewTest {
+	
+	private PullScrollView mScrollView;
+	
+	private ScrollView mBaseline;
+	
+	private int mRefreshes;
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		final Activity activity = Robolectric.setupActivity(Activity.class);
+		final TextView content = new TextView(activity);
+		content.setHeight(PullViewTestSupport.HEIGHT * 2);
+		mScrollView = new PullScrollView(activity);
+		mScrollView.addView(content);
+		mScrollView.setOnRefreshListener(new OnRefreshListener() {
+			
+			@Override
+			public void onRefresh() {
+				mRefreshes++;
+			}
+		});
+		PullViewTestSupport.setContentView(activity, mScrollView);
+		
+		//Warm up, so the first gesture of a test does not pay for loading classes.
+		PullViewTestSupport.play(GestureScript.pullAndCancel(mScrollView, 600), mScrollView, mScrollView.getCounters());
+		mScrollView.getLoadMetrics().reset();
+		
+		//The scroll view which the pull scroll view extends, allocations are measured against it.
+		final Activity baselineActivity = Robolectric.setupActivity(Activity.class);
+		final TextView baselineContent = new TextView(baselineActivity);
+		baselineContent.setHeight(PullViewTestSupport.HEIGHT * 2);
+		mBaseline = new ScrollView(baselineActivity);
+		mBaseline.addView(baselineContent);
+		PullViewTestSupport.setContentView(baselineActivity, mBaseline);
+		PullViewTestSupport.play(GestureScript.pullAndCancel(mBaseline, 600), mBaseline, new PullViewCounters());
+	}
+	
+	@Test
+	public void slowPullRefreshesOnce() {
+		final GestureScript script = GestureScript.slowPull(mScrollView, 600, 800);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mScrollView, mScrollView.getCounters());
+		
+		assertEquals(1, mRefreshes);
+		assertEquals(1, report.getCounters().getDispatches());
+		assertCostBounded(report);
+		
+		mScrollView.refreshComplete();
+		PullViewTestSupport.idle();
+		assertEquals(0, mScrollView.getHeaderView().getVisiableHeight());
+	}
+	
+	@Test
+	public void pullAndCancelDoesNotRefresh() {
+		final GestureScript script = GestureScript.pullAndCancel(mScrollView, 600);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mScrollView, mScrollView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(0, report.getCounters().getDispatches());
+		assertEquals(0, mScrollView.getHeaderView().getVisiableHeight());
+		assertCostBounded(report);
+	}
+	
+	@Test
+	public void cancelEventDropsPull() {
+		final float x = mScrollView.getWidth() / 2f;
+		final float y = mScrollView.getHeight() / 4f;
+		final GestureScript script = new GestureScript().down(0, x, y).moveTo(0, x, y, 800, x, y + 600)
+				.cancel(800 + GestureScript.MOVE_INTERVAL, x, y + 600);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mScrollView, mScrollView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(0, mScrollView.getHeaderView().getVisiableHeight());
+		assertCostBounded(report);
+		
+		//The pull was dropped, so the next one refreshes as usual.
+		PullViewTestSupport.play(GestureScript.slowPull(mScrollView, 600, 800), mScrollView, mScrollView.getCounters());
+		assertEquals(1, mRefreshes);
+	}
+	
+	@Test
+	public void flingWithHiddenHeaderDoesNotLayout() {
+		final GestureScript script = GestureScript.pullUp(mScrollView, 400, 100);
+		final GestureScript.Report report = PullViewTestSupport.play(script, mScrollView, mScrollView.getCounters());
+		
+		assertEquals(0, mRefreshes);
+		assertEquals(0, mScrollView.getHeaderView().getVisiableHeight());
+		assertEquals(report.toString(), 0, report.getCounters().getRequestLayouts());
+		assertEquals(report.toString(), 0, report.getCounters().getLayouts());
+	}
+	
+	@Test
+	public void touchEventsAllocateLittleMoreThanScrollView() {
+		assertAllocationBounded(GestureScript.slowPull(mScrollView, 600, 800));
+		assertAllocationBounded(GestureScript.fastFlick(mScrollView, 200));
+		assertAllocationBounded(GestureScript.pullAndCancel(mScrollView, 600));
+	}
+	
+	@Test
+	public void refreshTimeoutHidesHeader() {
+		final int [] timeouts = new int[1];
+		mScrollView.setRefreshTimeout(1000);
+		mScrollView.setOnLoadTimeoutListener(new OnLoadTimeoutListener() {
+			
+			@Override
+			public void onRefreshTimeout() {
+				timeouts[0]++;
+			}
+			
+			@Override
+			public void onLoadMoreTimeout() {
+			}
+		});
+		PullViewTestSupport.play(GestureScript.slowPull(mScrollView, 600, 800), mScrollView, mScrollView.getCounters());
+		
+		assertEquals(1, mRefreshes);
+		assertEquals(1, timeouts[0]);
+		assertEquals(0, mScrollView.getHeaderView().getVisiableHeight());
+		
+		//The refresh timed out is not timed, the late completion is dropped and the next one has no start.
+		mScrollView.refreshComplete();
+		mScrollView.refreshComplete();
+		PullViewTestSupport.idle();
+		assertEquals(0, mScrollView.getLoadMetrics().getRefreshLatency().getCount());
+		
+		//Back to idle, so the next pull refreshes as usual.
+		PullViewTestSupport.play(GestureScript.slowPull(mScrollView, 600, 800), mScrollView, mScrollView.getCounters());
+		assertEquals(2, mRefreshes);
+	}
+	
+	@Test
+	@SuppressWarnings("deprecation")
+	public void deprecatedProgressBarSetsIndicatorProgress() {
+		final Drawable drawable = new ColorDrawable(Color.RED);
+		mScrollView.getHeaderProgress().setIndeterminateDrawable(drawable);
+		
+		assertSame(mScrollView.getHeaderProgress(), mScrollView.getHeaderView().getProgress());
+		assertSame(drawable, mScrollView.getHeaderProgressDrawable());
+		assertSame(drawable, mScrollView.getHeaderProgress().getIndeterminateDrawable());
+	}
+	
+	private void assertAllocationBounded(GestureScript script) {
+		final long extraBytes = PullViewTestSupport.getExtraAllocatedBytes(script, 
+				mScrollView, mScrollView.getCounters(), mBaseline, new Runnable() {
+			
+			@Override
+			public void run() {
+				mScrollView.refreshComplete();
+			}
+		});
+		assertTrue("extraAllocatedBytes=" + extraBytes + " of " + script.getEventCount() + " events", 
+				extraBytes <= PullViewTestSupport.MAX_EXTRA_ALLOCATED_BYTES_PER_GESTURE 
+				+ PullViewTestSupport.MAX_EXTRA_ALLOCATED_BYTES_PER_EVENT * script.getEventCount());
+	}
+	
+	private static void assertCostBounded(GestureScript.Report report) {
+		final PullViewCounters counters = report.getCounters();
+		final long frames = report.getDuration() / GestureScript.MOVE_INTERVAL + 1;
+		assertTrue(report.toString(), counters.getIndicatorTextUpdates() <= 4);
+		assertTrue(report.toString(), counters.getRequestLayouts() <= 2 * frames);
+		assertTrue(report.toString(), counters.getMeasures() <= frames);
+		assertTrue(report.toString(), counters.getLayouts() <= frames);
+	}
+}
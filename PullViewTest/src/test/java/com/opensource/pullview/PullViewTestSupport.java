@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowAbsListView;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+
+/**
+ * Usage Shared setup of the tests, lays out views and plays scripts on the paused main looper.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+final class PullViewTestSupport {
+	
+	/** The manifest of the library, the tests read its resources. */
+	static final String MANIFEST = "../PullView/AndroidManifest.xml";
+	
+	/** The target API level of the library. */
+	static final int SDK = 19;
+	
+	/** The width of the views under test, in pixels. */
+	static final int WIDTH = 480;
+	
+	/** The height of the views under test, in pixels. */
+	static final int HEIGHT = 800;
+	
+	/** 
+	 * The upper bound of bytes allocated by the main thread per touch event, more than the framework 
+	 * view the pull view extends allocates for the same events. Robolectric shadows allocate about 
+	 * 20KB on every event by themselves, so the pull views are measured against a baseline view, 
+	 * this catches a view which allocates a few objects on every move.
+	 */
+	static final long MAX_EXTRA_ALLOCATED_BYTES_PER_EVENT = 2 * 1024;
+	
+	/** 
+	 * The upper bound of bytes allocated once per gesture more than the framework view, 
+	 * by changing state of the indicator and dispatching the loading. 
+	 */
+	static final long MAX_EXTRA_ALLOCATED_BYTES_PER_GESTURE = 32 * 1024;
+	
+	/** The time to run the main looper after a script, so settling and loading can end. */
+	private static final long IDLE_TIME = 5000;
+	
+	/** 
+	 * The times to play a script when measuring its allocations, the least one is taken, 
+	 * as the first plays of a path load classes and fill caches of Robolectric.
+	 */
+	private static final int ALLOCATION_RUNS = 3;
+	
+	private PullViewTestSupport() {
+		
+	}
+	
+	/**
+	 * Pause the main looper and give animation callbacks a frame time, otherwise the 
+	 * animations of the views post their frames forever on the same time.
+	 */
+	static void pauseMainLooper() {
+		ShadowLooper.pauseMainLooper();
+		ShadowChoreographer.setPostCallbackDelay(16);
+		ShadowChoreographer.setPostFrameCallbackDelay(16);
+	}
+	
+	/**
+	 * Set the view as content of the activity in {@link #WIDTH} x {@link #HEIGHT}, and lay it out.
+	 * The window of Robolectric has no size, so the size of view is fixed by its layout params.
+	 * @param activity
+	 * @param view
+	 */
+	static void setContentView(Activity activity, View view) {
+		activity.setContentView(view, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+		idle();
+	}
+	
+	/**
+	 * Run the main looper until settling and loading of views ended.
+	 */
+	static void idle() {
+		ShadowLooper.idleMainLooper(IDLE_TIME);
+	}
+	
+	/**
+	 * Call the scroll listener of the list with its visible rows. Robolectric keeps the scroll 
+	 * listener in its shadow and never calls it, so call it after the list scrolled.
+	 * @param list
+	 */
+	static void dispatchScroll(AbsListView list) {
+		final ShadowAbsListView shadow = Shadow.extract(list);
+		shadow.getOnScrollListener().onScroll(list, list.getFirstVisiblePosition(), 
+				list.getChildCount(), list.getCount());
+	}
+	
+	/**
+	 * Call the scroll listener of the list with a new scroll state, Robolectric never calls it.
+	 * @param list
+	 * @param scrollState
+	 */
+	static void dispatchScrollState(AbsListView list, int scrollState) {
+		final ShadowAbsListView shadow = Shadow.extract(list);
+		shadow.getOnScrollListener().onScrollStateChanged(list, scrollState);
+	}
+	
+	/**
+	 * Send the events of script at once to the pull view and to a framework view, and get the bytes 
+	 * the pull view allocated more. Frames are not measured, their work is bounded by the counters.
+	 * The baseline view must be laid out in {@link #WIDTH} x {@link #HEIGHT} like the pull view.
+	 * @param script
+	 * @param view the pull view.
+	 * @param counters the counters of pull view.
+	 * @param baseline the framework view which the pull view extends, with the same content.
+	 * @param reset run after every play on the pull view to end its loading, may be null.
+	 * @return
+	 */
+	static long getExtraAllocatedBytes(GestureScript script, View view, PullViewCounters counters, 
+			View baseline, Runnable reset) {
+		long bytes = Long.MAX_VALUE;
+		long baselineBytes = Long.MAX_VALUE;
+		for(int i = 0; i < ALLOCATION_RUNS; i++) {
+			bytes = Math.min(bytes, script.playNow(view, counters).getAllocatedBytes());
+			if(null != reset) {
+				reset.run();
+			}
+			idle();
+			baselineBytes = Math.min(baselineBytes, script.playNow(baseline, new PullViewCounters()).getAllocatedBytes());
+			idle();
+		}
+		return bytes - baselineBytes;
+	}
+	
+	/**
+	 * Play the script in time of the main looper, and run the looper until the view settled.
+	 * @param script
+	 * @param view
+	 * @param counters
+	 * @return
+	 */
+	static GestureScript.Report play(GestureScript script, View view, PullViewCounters counters) {
+		final GestureScript.Report [] report = new GestureScript.Report[1];
+		script.play(view, counters, new GestureScript.Callback() {
+			
+			@Override
+			public void onPlayed(GestureScript.Report played) {
+				report[0] = played;
+			}
+		});
+		idle();
+		if(null == report[0]) {
+			throw new IllegalStateException("Script was not played in " + IDLE_TIME + "ms");
+		}
+		return report[0];
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2014  The Android Open Source Project.
+ *
+ *		yinglovezhuzhu@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */	
+package com.opensource.pullview;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import android.app.Activity;
+import android.widget.ArrayAdapter;
+import android.widget.LinearLayout;
+
+/**
+ * Usage Checks {@link RefreshScheduler} limits requested operations only, and runs waiting
+ * ones after a slot is freed.<br>
+ * 
+ * @author yinglovezhuzhu@gmail.com
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = PullViewTestSupport.MANIFEST, sdk = PullViewTestSupport.SDK)
+public class RefreshSchedulerTest {
+	
+	private PullListView mFirst;
+	
+	private PullListView mSecond;
+	
+	private final int [] mRefreshes = new int[2];
+	
+	@Before
+	public void setUp() {
+		PullViewTestSupport.pauseMainLooper();
+		//Robolectric gives every test a new main looper, the scheduler must post to the new one.
+		ReflectionHelpers.setStaticField(RefreshScheduler.class, "sInstance", null);
+		final Activity activity = Robolectric.setupActivity(Activity.class);
+		final LinearLayout content = new LinearLayout(activity);
+		content.setOrientation(LinearLayout.VERTICAL);
+		mFirst = createListView(activity, 0);
+		mSecond = createListView(activity, 1);
+		content.addView(mFirst, new LinearLayout.LayoutParams(PullViewTestSupport.WIDTH, PullViewTestSupport.HEIGHT / 2));
+		content.addView(mSecond, new LinearLayout.LayoutParams(PullViewTestSupport.WIDTH, PullViewTestSupport.HEIGHT / 2));
+		PullViewTestSupport.setContentView(activity, content);
+		RefreshScheduler.getInstance().setMaxRunning(1);
+		//Windows of Robolectric are never visible, so all views are off screen, run them at once.
+		RefreshScheduler.getInstance().setOffscreenDelay(0);
+	}
+	
+	@After
+	public void tearDown() {
+		mFirst.refreshCompleted();
+		mSecond.refreshCompleted();
+		PullViewTestSupport.idle();
+		RefreshScheduler.getInstance().setMaxRunning(RefreshScheduler.DEFAULT_MAX_RUNNING);
+		RefreshScheduler.getInstance().setOffscreenDelay(RefreshScheduler.DEFAULT_OFFSCREEN_DELAY);
+	}
+	
+	@Test
+	public void gestureRefreshTakesNoSlot() {
+		PullViewTestSupport.play(GestureScript.slowPull(mFirst, 300, 800), mFirst, mFirst.getCounters());
+		assertEquals(1, mRefreshes[0]);
+		assertEquals(0, RefreshScheduler.getInstance().getRunningCount());
+		
+		mSecond.requestRefresh();
+		assertEquals(1, mRefreshes[1]);
+	}
+	
+	@Test
+	public void freedSlotRunsWaitingRequestLater() {
+		mFirst.requestRefresh();
+		mSecond.requestRefresh();
+		assertEquals(1, mRefreshes[0]);
+		assertEquals(0, mRefreshes[1]);
+		assertEquals(1, RefreshScheduler.getInstance().getPendingCount());
+		
+		mFirst.refreshCompleted();
+		//Not run in the call of the completing view.
+		assertEquals(0, mRefreshes[1]);
+		PullViewTestSupport.idle();
+		assertEquals(1, mRefreshes[1]);
+		assertEquals(0, RefreshScheduler.getInstance().getPendingCount());
+	}
+	
+	private PullListView createListView(Activity activity, final int index) {
+		final String [] items = new String[20];
+		for(int i = 0; i < items.length; i++) {
+			items[i] = "Item " + i;
+		}
+		final PullListView listView = new PullListView(activity);
+		listView.setAdapter(new ArrayAdapter<String>(activity, android.R.layout.simple_list_item_1, items));
+		listView.setOnRefreshListener(new OnRefreshListener() {
+			
+			@Override
+			public void onRefresh() {
+				mRefreshes[index]++;
+			}
+		});
+		return listView;
+	}
+}